@@ -0,0 +1,255 @@
+package com.cbrit0.analyticsservice.aggregation;
+
+import com.cbrit0.analyticsservice.dto.WindowAggregateDTO;
+import com.cbrit0.analyticsservice.dto.WindowedAnalyticsResponseDTO;
+import com.cbrit0.analyticsservice.sketch.Hashing;
+import com.cbrit0.analyticsservice.sketch.HyperLogLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Event counts and distinct patients per fixed-width time bucket, kept in a ring that covers the retention period.
+// Tumbling and sliding windows are sums over a bounded number of buckets, so memory and query cost
+// depend only on the configured window sizes, never on event volume.
+@Component
+public class PatientEventAggregator {
+    static final String REGISTRATION = "PATIENT_CREATED";
+    static final List<String> EVENT_TYPES = List.of(REGISTRATION, "PATIENT_UPDATED", "PATIENT_DELETED", "OTHER");
+    private static final int TYPES = EVENT_TYPES.size();
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final Clock clock;
+    private final long bucketMillis;
+    private final int slots;
+    private final int tumblingBuckets;
+    private final int slidingBuckets;
+    private final int precision;
+
+    // Ring of slots: slot i holds bucketIds[i], its per-type counts and its unique-patient sketch
+    private final long[] bucketIds;
+    private final long[] counts;
+    private final HyperLogLog[] patients;
+    private final long[] totals = new long[TYPES];
+    private long lateEvents;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public PatientEventAggregator(@Value("${analytics.window.bucket:10s}") Duration bucket,
+                                  @Value("${analytics.window.tumbling:1m}") Duration tumbling,
+                                  @Value("${analytics.window.sliding:5m}") Duration sliding,
+                                  @Value("${analytics.window.retention:1h}") Duration retention,
+                                  @Value("${analytics.window.distinct-precision:10}") int precision) {
+        this(Clock.systemUTC(), bucket, tumbling, sliding, retention, precision);
+    }
+
+    PatientEventAggregator(Clock clock, Duration bucket, Duration tumbling, Duration sliding, Duration retention,
+                           int precision) {
+        this.clock = clock;
+        this.bucketMillis = bucket.toMillis();
+        this.tumblingBuckets = bucketsIn(tumbling, "tumbling");
+        this.slidingBuckets = bucketsIn(sliding, "sliding");
+        this.slots = bucketsIn(retention, "retention");
+        if (slots < Math.max(tumblingBuckets * 2, slidingBuckets)) {
+            throw new IllegalArgumentException("analytics.window.retention must cover two tumbling windows and the sliding window");
+        }
+        this.precision = precision;
+
+        this.bucketIds = new long[slots];
+        Arrays.fill(bucketIds, EMPTY);
+        this.counts = new long[slots * TYPES];
+        this.patients = new HyperLogLog[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            patients[slot] = new HyperLogLog(precision);
+        }
+    }
+
+    public void record(long timestampMillis, String eventType, String patientId) {
+        long bucket = Math.floorDiv(timestampMillis, bucketMillis);
+        int type = typeIndex(eventType);
+        long patientHash = Hashing.hash64(patientId);
+
+        lock.lock();
+        try {
+            int slot = claimSlot(bucket);
+            if (slot < 0) {
+                lateEvents++;
+                return;
+            }
+            counts[slot * TYPES + type]++;
+            patients[slot].add(patientHash);
+            totals[type]++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public WindowedAnalyticsResponseDTO snapshot() {
+        long now = clock.millis();
+        long currentBucket = Math.floorDiv(now, bucketMillis);
+        long tumblingStart = Math.floorDiv(currentBucket, tumblingBuckets) * tumblingBuckets;
+
+        WindowedAnalyticsResponseDTO response = new WindowedAnalyticsResponseDTO();
+        HyperLogLog windowPatients = new HyperLogLog(precision);
+        lock.lock();
+        try {
+            response.setCurrentTumblingWindow(aggregate(tumblingStart, tumblingStart + tumblingBuckets, windowPatients));
+            response.setPreviousTumblingWindow(aggregate(tumblingStart - tumblingBuckets, tumblingStart, windowPatients));
+            response.setSlidingWindow(aggregate(currentBucket + 1 - slidingBuckets, currentBucket + 1, windowPatients));
+            response.setTotalEventCounts(byType(totals));
+            response.setLateEvents(lateEvents);
+        } finally {
+            lock.unlock();
+        }
+        return response;
+    }
+
+    // The ring layout is written first so a snapshot taken with different window settings is rejected on restore
+    public void writeTo(DataOutput out) throws IOException {
+        lock.lock();
+        try {
+            out.writeLong(bucketMillis);
+            out.writeInt(slots);
+            out.writeInt(precision);
+            for (long bucketId : bucketIds) {
+                out.writeLong(bucketId);
+            }
+            for (long count : counts) {
+                out.writeLong(count);
+            }
+            for (HyperLogLog sketch : patients) {
+                sketch.writeTo(out);
+            }
+            for (long total : totals) {
+                out.writeLong(total);
+            }
+            out.writeLong(lateEvents);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Decoding leaves the live windows untouched; restore applies the result once the whole snapshot has been read
+    public State read(DataInput in) throws IOException {
+        if (in.readLong() != bucketMillis || in.readInt() != slots || in.readInt() != precision) {
+            throw new IllegalStateException("Window snapshot was taken with different analytics.window settings");
+        }
+        long[] restoredBucketIds = readLongs(in, slots);
+        long[] restoredCounts = readLongs(in, counts.length);
+        HyperLogLog[] restoredPatients = new HyperLogLog[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            restoredPatients[slot] = HyperLogLog.readFrom(in);
+        }
+        long[] restoredTotals = readLongs(in, TYPES);
+        return new State(restoredBucketIds, restoredCounts, restoredPatients, restoredTotals, in.readLong());
+    }
+
+    public void restore(State state) {
+        lock.lock();
+        try {
+            System.arraycopy(state.bucketIds, 0, bucketIds, 0, slots);
+            System.arraycopy(state.counts, 0, counts, 0, counts.length);
+            System.arraycopy(state.patients, 0, patients, 0, slots);
+            System.arraycopy(state.totals, 0, totals, 0, TYPES);
+            lateEvents = state.lateEvents;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static final class State {
+        private final long[] bucketIds;
+        private final long[] counts;
+        private final HyperLogLog[] patients;
+        private final long[] totals;
+        private final long lateEvents;
+
+        private State(long[] bucketIds, long[] counts, HyperLogLog[] patients, long[] totals, long lateEvents) {
+            this.bucketIds = bucketIds;
+            this.counts = counts;
+            this.patients = patients;
+            this.totals = totals;
+            this.lateEvents = lateEvents;
+        }
+    }
+
+    // Returns the ring slot for the bucket, recycling the slot if it still holds an older bucket;
+    // -1 means the slot has already moved on to a newer bucket, i.e. the event is older than the retention period
+    private int claimSlot(long bucket) {
+        int slot = (int) Math.floorMod(bucket, (long) slots);
+        long held = bucketIds[slot];
+        if (held == bucket) {
+            return slot;
+        }
+        if (held != EMPTY && held > bucket) {
+            return -1;
+        }
+        bucketIds[slot] = bucket;
+        Arrays.fill(counts, slot * TYPES, (slot + 1) * TYPES, 0);
+        patients[slot].clear();
+        return slot;
+    }
+
+    private WindowAggregateDTO aggregate(long fromBucket, long toBucket, HyperLogLog windowPatients) {
+        long[] windowCounts = new long[TYPES];
+        windowPatients.clear();
+        for (long bucket = fromBucket; bucket < toBucket; bucket++) {
+            int slot = (int) Math.floorMod(bucket, (long) slots);
+            if (bucketIds[slot] != bucket) {
+                continue;
+            }
+            for (int type = 0; type < TYPES; type++) {
+                windowCounts[type] += counts[slot * TYPES + type];
+            }
+            windowPatients.merge(patients[slot]);
+        }
+
+        WindowAggregateDTO window = new WindowAggregateDTO();
+        window.setStart(Instant.ofEpochMilli(fromBucket * bucketMillis).toString());
+        window.setEnd(Instant.ofEpochMilli(toBucket * bucketMillis).toString());
+        window.setRegistrations(windowCounts[EVENT_TYPES.indexOf(REGISTRATION)]);
+        window.setEventCounts(byType(windowCounts));
+        window.setDistinctPatients(windowPatients.estimate());
+        return window;
+    }
+
+    private int bucketsIn(Duration window, String name) {
+        long millis = window.toMillis();
+        if (millis <= 0 || millis % bucketMillis != 0) {
+            throw new IllegalArgumentException("analytics.window." + name + " must be a positive multiple of analytics.window.bucket");
+        }
+        return (int) (millis / bucketMillis);
+    }
+
+    private static long[] readLongs(DataInput in, int length) throws IOException {
+        long[] values = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    private static int typeIndex(String eventType) {
+        int index = EVENT_TYPES.indexOf(eventType);
+        return index < 0 ? TYPES - 1 : index;
+    }
+
+    private static Map<String, Long> byType(long[] values) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int type = 0; type < TYPES; type++) {
+            result.put(EVENT_TYPES.get(type), values[type]);
+        }
+        return result;
+    }
+}
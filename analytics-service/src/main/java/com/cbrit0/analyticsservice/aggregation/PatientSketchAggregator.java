@@ -0,0 +1,211 @@
+package com.cbrit0.analyticsservice.aggregation;
+
+import com.cbrit0.analyticsservice.exception.InvalidWindowException;
+import com.cbrit0.analyticsservice.sketch.CountMinSketch;
+import com.cbrit0.analyticsservice.sketch.Hashing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Sketches over coarse buckets (hours rather than seconds) so dashboards can ask about large windows;
+// a window query merges its buckets into a fresh set of sketches
+@Component
+public class PatientSketchAggregator {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    public record WindowedSketches(Instant start, Instant end, PatientSketches sketches) {
+    }
+
+    private final Clock clock;
+    private final long bucketMillis;
+    private final int slots;
+    private final int precision;
+    private final int countMinWidth;
+    private final int countMinDepth;
+    private final int topDomainCapacity;
+    private final long[] bucketIds;
+    private final PatientSketches[] buckets;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public PatientSketchAggregator(@Value("${analytics.sketch.bucket:1h}") Duration bucket,
+                                   @Value("${analytics.sketch.retention:24h}") Duration retention,
+                                   @Value("${analytics.sketch.hll-precision:14}") int precision,
+                                   @Value("${analytics.sketch.count-min.epsilon:0.001}") double epsilon,
+                                   @Value("${analytics.sketch.count-min.delta:0.01}") double delta,
+                                   @Value("${analytics.sketch.top-domains.capacity:200}") int topDomainCapacity) {
+        this(Clock.systemUTC(), bucket, retention, precision, epsilon, delta, topDomainCapacity);
+    }
+
+    PatientSketchAggregator(Clock clock, Duration bucket, Duration retention, int precision, double epsilon,
+                            double delta, int topDomainCapacity) {
+        this.clock = clock;
+        this.bucketMillis = bucket.toMillis();
+        if (bucketMillis <= 0 || retention.toMillis() < bucketMillis || retention.toMillis() % bucketMillis != 0) {
+            throw new IllegalArgumentException("analytics.sketch.retention must be a positive multiple of analytics.sketch.bucket");
+        }
+        this.slots = (int) (retention.toMillis() / bucketMillis);
+
+        this.precision = precision;
+        this.countMinWidth = CountMinSketch.widthFor(epsilon);
+        this.countMinDepth = CountMinSketch.depthFor(delta);
+        this.topDomainCapacity = topDomainCapacity;
+
+        this.bucketIds = new long[slots];
+        Arrays.fill(bucketIds, EMPTY);
+        this.buckets = new PatientSketches[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            buckets[slot] = newSketches();
+        }
+    }
+
+    // Every event counts towards unique patients; registrations also count towards their email domain
+    public void record(long timestampMillis, String eventType, String patientId, String email) {
+        long bucket = Math.floorDiv(timestampMillis, bucketMillis);
+        long patientHash = Hashing.hash64(patientId);
+        String domain = PatientEventAggregator.REGISTRATION.equals(eventType) ? emailDomain(email) : null;
+
+        lock.lock();
+        try {
+            int slot = claimSlot(bucket);
+            if (slot < 0) {
+                return;
+            }
+            buckets[slot].getPatients().add(patientHash);
+            if (domain != null) {
+                buckets[slot].recordDomain(domain);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public WindowedSketches query(Duration window) {
+        long windowMillis = window.toMillis();
+        if (windowMillis <= 0 || windowMillis % bucketMillis != 0 || windowMillis / bucketMillis > slots) {
+            throw new InvalidWindowException("Window must be a multiple of " + Duration.ofMillis(bucketMillis)
+                    + " and at most " + Duration.ofMillis(bucketMillis * slots));
+        }
+        int windowBuckets = (int) (windowMillis / bucketMillis);
+        long toBucket = Math.floorDiv(clock.millis(), bucketMillis) + 1;
+        long fromBucket = toBucket - windowBuckets;
+
+        PatientSketches merged = newSketches();
+        lock.lock();
+        try {
+            for (long bucket = fromBucket; bucket < toBucket; bucket++) {
+                int slot = (int) Math.floorMod(bucket, (long) slots);
+                if (bucketIds[slot] == bucket) {
+                    merged.merge(buckets[slot]);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return new WindowedSketches(Instant.ofEpochMilli(fromBucket * bucketMillis),
+                Instant.ofEpochMilli(toBucket * bucketMillis), merged);
+    }
+
+    public int sizeInBytes() {
+        lock.lock();
+        try {
+            return Arrays.stream(buckets).mapToInt(PatientSketches::sizeInBytes).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        lock.lock();
+        try {
+            out.writeLong(bucketMillis);
+            out.writeInt(slots);
+            out.writeInt(precision);
+            out.writeInt(countMinWidth);
+            out.writeInt(countMinDepth);
+            out.writeInt(topDomainCapacity);
+            for (long bucketId : bucketIds) {
+                out.writeLong(bucketId);
+            }
+            for (PatientSketches bucket : buckets) {
+                bucket.writeTo(out);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Decoding leaves the live sketches untouched; restore applies the result once the whole snapshot has been read
+    public State read(DataInput in) throws IOException {
+        // Sketches of another size couldn't be merged with the ones built from now on
+        if (in.readLong() != bucketMillis || in.readInt() != slots || in.readInt() != precision
+                || in.readInt() != countMinWidth || in.readInt() != countMinDepth || in.readInt() != topDomainCapacity) {
+            throw new IllegalStateException("Sketch snapshot was taken with different analytics.sketch settings");
+        }
+        long[] restoredBucketIds = new long[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            restoredBucketIds[slot] = in.readLong();
+        }
+        PatientSketches[] restoredBuckets = new PatientSketches[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            restoredBuckets[slot] = PatientSketches.readFrom(in);
+        }
+        return new State(restoredBucketIds, restoredBuckets);
+    }
+
+    public void restore(State state) {
+        lock.lock();
+        try {
+            System.arraycopy(state.bucketIds, 0, bucketIds, 0, slots);
+            System.arraycopy(state.buckets, 0, buckets, 0, slots);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static final class State {
+        private final long[] bucketIds;
+        private final PatientSketches[] buckets;
+
+        private State(long[] bucketIds, PatientSketches[] buckets) {
+            this.bucketIds = bucketIds;
+            this.buckets = buckets;
+        }
+    }
+
+    private int claimSlot(long bucket) {
+        int slot = (int) Math.floorMod(bucket, (long) slots);
+        long held = bucketIds[slot];
+        if (held == bucket) {
+            return slot;
+        }
+        if (held != EMPTY && held > bucket) {
+            return -1;
+        }
+        bucketIds[slot] = bucket;
+        buckets[slot].clear();
+        return slot;
+    }
+
+    private PatientSketches newSketches() {
+        return new PatientSketches(precision, countMinWidth, countMinDepth, topDomainCapacity);
+    }
+
+    static String emailDomain(String email) {
+        int at = email.lastIndexOf('@');
+        if (at < 0 || at == email.length() - 1) {
+            return null;
+        }
+        return email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,70 @@
+package com.cbrit0.analyticsservice.aggregation;
+
+import com.cbrit0.analyticsservice.sketch.CountMinSketch;
+import com.cbrit0.analyticsservice.sketch.Hashing;
+import com.cbrit0.analyticsservice.sketch.HyperLogLog;
+import com.cbrit0.analyticsservice.sketch.SpaceSaving;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Unique patients plus registrations per email domain for one span of time; spans and instances combine with merge
+public class PatientSketches {
+    private final HyperLogLog patients;
+    private final CountMinSketch domainRegistrations;
+    private final SpaceSaving topDomains;
+
+    public PatientSketches(int precision, int countMinWidth, int countMinDepth, int topDomainCapacity) {
+        this(new HyperLogLog(precision), new CountMinSketch(countMinWidth, countMinDepth), new SpaceSaving(topDomainCapacity));
+    }
+
+    private PatientSketches(HyperLogLog patients, CountMinSketch domainRegistrations, SpaceSaving topDomains) {
+        this.patients = patients;
+        this.domainRegistrations = domainRegistrations;
+        this.topDomains = topDomains;
+    }
+
+    public HyperLogLog getPatients() {
+        return patients;
+    }
+
+    public CountMinSketch getDomainRegistrations() {
+        return domainRegistrations;
+    }
+
+    public SpaceSaving getTopDomains() {
+        return topDomains;
+    }
+
+    public void recordDomain(String domain) {
+        domainRegistrations.add(Hashing.hash64(domain), 1);
+        topDomains.add(domain, 1);
+    }
+
+    public void merge(PatientSketches other) {
+        patients.merge(other.patients);
+        domainRegistrations.merge(other.domainRegistrations);
+        topDomains.merge(other.topDomains);
+    }
+
+    public void clear() {
+        patients.clear();
+        domainRegistrations.clear();
+        topDomains.clear();
+    }
+
+    public int sizeInBytes() {
+        return patients.sizeInBytes() + domainRegistrations.sizeInBytes() + topDomains.sizeInBytes();
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        patients.writeTo(out);
+        domainRegistrations.writeTo(out);
+        topDomains.writeTo(out);
+    }
+
+    public static PatientSketches readFrom(DataInput in) throws IOException {
+        return new PatientSketches(HyperLogLog.readFrom(in), CountMinSketch.readFrom(in), SpaceSaving.readFrom(in));
+    }
+}
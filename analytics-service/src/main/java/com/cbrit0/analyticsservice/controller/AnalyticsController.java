@@ -0,0 +1,109 @@
+package com.cbrit0.analyticsservice.controller;
+
+import com.cbrit0.analyticsservice.aggregation.PatientEventAggregator;
+import com.cbrit0.analyticsservice.aggregation.PatientSketchAggregator;
+import com.cbrit0.analyticsservice.aggregation.PatientSketchAggregator.WindowedSketches;
+import com.cbrit0.analyticsservice.aggregation.PatientSketches;
+import com.cbrit0.analyticsservice.dto.DomainCountResponseDTO;
+import com.cbrit0.analyticsservice.dto.HeavyHitterDTO;
+import com.cbrit0.analyticsservice.dto.SketchSummaryResponseDTO;
+import com.cbrit0.analyticsservice.dto.WindowedAnalyticsResponseDTO;
+import com.cbrit0.analyticsservice.exception.InvalidTopException;
+import com.cbrit0.analyticsservice.exception.InvalidWindowException;
+import com.cbrit0.analyticsservice.sketch.Hashing;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+    private final PatientEventAggregator patientEventAggregator;
+    private final PatientSketchAggregator patientSketchAggregator;
+
+    public AnalyticsController(PatientEventAggregator patientEventAggregator,
+                               PatientSketchAggregator patientSketchAggregator) {
+        this.patientEventAggregator = patientEventAggregator;
+        this.patientSketchAggregator = patientSketchAggregator;
+    }
+
+    @GetMapping("/windows")
+    public ResponseEntity<WindowedAnalyticsResponseDTO> getWindows() {
+        return ResponseEntity.ok().body(patientEventAggregator.snapshot());
+    }
+
+    @GetMapping("/sketches")
+    public ResponseEntity<SketchSummaryResponseDTO> getSketchSummary(@RequestParam(defaultValue = "24h") String window,
+                                                                     @RequestParam(defaultValue = "10") int top) {
+        if (top < 0) {
+            throw new InvalidTopException("Invalid top '" + top + "'; it must be zero or more");
+        }
+        WindowedSketches windowed = patientSketchAggregator.query(parseWindow(window));
+        PatientSketches sketches = windowed.sketches();
+
+        SketchSummaryResponseDTO summary = new SketchSummaryResponseDTO();
+        summary.setStart(windowed.start().toString());
+        summary.setEnd(windowed.end().toString());
+        summary.setUniquePatients(sketches.getPatients().estimate());
+        summary.setUniquePatientsRelativeError(sketches.getPatients().relativeStandardError());
+        summary.setRegistrations(sketches.getDomainRegistrations().total());
+        summary.setTopEmailDomains(sketches.getTopDomains().top(top).stream().map(hitter -> {
+            HeavyHitterDTO dto = new HeavyHitterDTO();
+            dto.setDomain(hitter.key());
+            dto.setRegistrations(hitter.count());
+            dto.setMaxOverestimate(hitter.error());
+            return dto;
+        }).toList());
+        summary.setTopEmailDomainsMaxOverestimate(sketches.getTopDomains().errorBound());
+        return ResponseEntity.ok().body(summary);
+    }
+
+    @GetMapping("/sketches/domains/{domain}")
+    public ResponseEntity<DomainCountResponseDTO> getDomainCount(@PathVariable String domain,
+                                                                 @RequestParam(defaultValue = "24h") String window) {
+        WindowedSketches windowed = patientSketchAggregator.query(parseWindow(window));
+        String normalized = domain.toLowerCase(Locale.ROOT);
+
+        DomainCountResponseDTO count = new DomainCountResponseDTO();
+        count.setDomain(normalized);
+        count.setStart(windowed.start().toString());
+        count.setEnd(windowed.end().toString());
+        count.setRegistrations(windowed.sketches().getDomainRegistrations().estimate(Hashing.hash64(normalized)));
+        count.setMaxOverestimate(windowed.sketches().getDomainRegistrations().errorBound());
+        count.setConfidence(windowed.sketches().getDomainRegistrations().confidence());
+        return ResponseEntity.ok().body(count);
+    }
+
+    // Serialized sketches for the window; merging the exports of every consumer instance gives the topic-wide view
+    @GetMapping(value = "/sketches/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> exportSketches(@RequestParam(defaultValue = "24h") String window) {
+        WindowedSketches windowed = patientSketchAggregator.query(parseWindow(window));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            windowed.sketches().writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ResponseEntity.ok().body(bytes.toByteArray());
+    }
+
+    private static Duration parseWindow(String window) {
+        try {
+            return DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidWindowException("Invalid window '" + window + "'");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.cbrit0.analyticsservice.dto;
+
+public class DomainCountResponseDTO {
+    private String domain;
+    private String start;
+    private String end;
+    private long registrations;
+    private long maxOverestimate;
+    private double confidence;
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public String getStart() {
+        return start;
+    }
+
+    public void setStart(String start) {
+        this.start = start;
+    }
+
+    public String getEnd() {
+        return end;
+    }
+
+    public void setEnd(String end) {
+        this.end = end;
+    }
+
+    public long getRegistrations() {
+        return registrations;
+    }
+
+    public void setRegistrations(long registrations) {
+        this.registrations = registrations;
+    }
+
+    public long getMaxOverestimate() {
+        return maxOverestimate;
+    }
+
+    public void setMaxOverestimate(long maxOverestimate) {
+        this.maxOverestimate = maxOverestimate;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(double confidence) {
+        this.confidence = confidence;
+    }
+}
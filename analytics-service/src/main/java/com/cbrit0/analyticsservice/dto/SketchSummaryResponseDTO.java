@@ -0,0 +1,69 @@
+package com.cbrit0.analyticsservice.dto;
+
+import java.util.List;
+
+public class SketchSummaryResponseDTO {
+    private String start;
+    private String end;
+    private long uniquePatients;
+    private double uniquePatientsRelativeError;
+    private long registrations;
+    private List<HeavyHitterDTO> topEmailDomains;
+    private long topEmailDomainsMaxOverestimate;
+
+    public String getStart() {
+        return start;
+    }
+
+    public void setStart(String start) {
+        this.start = start;
+    }
+
+    public String getEnd() {
+        return end;
+    }
+
+    public void setEnd(String end) {
+        this.end = end;
+    }
+
+    public long getUniquePatients() {
+        return uniquePatients;
+    }
+
+    public void setUniquePatients(long uniquePatients) {
+        this.uniquePatients = uniquePatients;
+    }
+
+    public double getUniquePatientsRelativeError() {
+        return uniquePatientsRelativeError;
+    }
+
+    public void setUniquePatientsRelativeError(double uniquePatientsRelativeError) {
+        this.uniquePatientsRelativeError = uniquePatientsRelativeError;
+    }
+
+    public long getRegistrations() {
+        return registrations;
+    }
+
+    public void setRegistrations(long registrations) {
+        this.registrations = registrations;
+    }
+
+    public List<HeavyHitterDTO> getTopEmailDomains() {
+        return topEmailDomains;
+    }
+
+    public void setTopEmailDomains(List<HeavyHitterDTO> topEmailDomains) {
+        this.topEmailDomains = topEmailDomains;
+    }
+
+    public long getTopEmailDomainsMaxOverestimate() {
+        return topEmailDomainsMaxOverestimate;
+    }
+
+    public void setTopEmailDomainsMaxOverestimate(long topEmailDomainsMaxOverestimate) {
+        this.topEmailDomainsMaxOverestimate = topEmailDomainsMaxOverestimate;
+    }
+}
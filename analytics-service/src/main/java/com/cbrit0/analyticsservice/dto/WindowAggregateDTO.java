@@ -0,0 +1,51 @@
+package com.cbrit0.analyticsservice.dto;
+
+import java.util.Map;
+
+public class WindowAggregateDTO {
+    private String start;
+    private String end;
+    private long registrations;
+    private Map<String, Long> eventCounts;
+    private long distinctPatients;
+
+    public String getStart() {
+        return start;
+    }
+
+    public void setStart(String start) {
+        this.start = start;
+    }
+
+    public String getEnd() {
+        return end;
+    }
+
+    public void setEnd(String end) {
+        this.end = end;
+    }
+
+    public long getRegistrations() {
+        return registrations;
+    }
+
+    public void setRegistrations(long registrations) {
+        this.registrations = registrations;
+    }
+
+    public Map<String, Long> getEventCounts() {
+        return eventCounts;
+    }
+
+    public void setEventCounts(Map<String, Long> eventCounts) {
+        this.eventCounts = eventCounts;
+    }
+
+    public long getDistinctPatients() {
+        return distinctPatients;
+    }
+
+    public void setDistinctPatients(long distinctPatients) {
+        this.distinctPatients = distinctPatients;
+    }
+}
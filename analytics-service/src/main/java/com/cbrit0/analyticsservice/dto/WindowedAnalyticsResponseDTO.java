@@ -0,0 +1,51 @@
+package com.cbrit0.analyticsservice.dto;
+
+import java.util.Map;
+
+public class WindowedAnalyticsResponseDTO {
+    private WindowAggregateDTO currentTumblingWindow;
+    private WindowAggregateDTO previousTumblingWindow;
+    private WindowAggregateDTO slidingWindow;
+    private Map<String, Long> totalEventCounts;
+    private long lateEvents;
+
+    public WindowAggregateDTO getCurrentTumblingWindow() {
+        return currentTumblingWindow;
+    }
+
+    public void setCurrentTumblingWindow(WindowAggregateDTO currentTumblingWindow) {
+        this.currentTumblingWindow = currentTumblingWindow;
+    }
+
+    public WindowAggregateDTO getPreviousTumblingWindow() {
+        return previousTumblingWindow;
+    }
+
+    public void setPreviousTumblingWindow(WindowAggregateDTO previousTumblingWindow) {
+        this.previousTumblingWindow = previousTumblingWindow;
+    }
+
+    public WindowAggregateDTO getSlidingWindow() {
+        return slidingWindow;
+    }
+
+    public void setSlidingWindow(WindowAggregateDTO slidingWindow) {
+        this.slidingWindow = slidingWindow;
+    }
+
+    public Map<String, Long> getTotalEventCounts() {
+        return totalEventCounts;
+    }
+
+    public void setTotalEventCounts(Map<String, Long> totalEventCounts) {
+        this.totalEventCounts = totalEventCounts;
+    }
+
+    public long getLateEvents() {
+        return lateEvents;
+    }
+
+    public void setLateEvents(long lateEvents) {
+        this.lateEvents = lateEvents;
+    }
+}
@@ -0,0 +1,7 @@
+package com.cbrit0.analyticsservice.exception;
+
+public class InvalidTopException extends RuntimeException {
+    public InvalidTopException(String message) {
+        super(message);
+    }
+}
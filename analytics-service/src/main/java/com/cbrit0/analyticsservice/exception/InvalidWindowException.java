@@ -0,0 +1,7 @@
+package com.cbrit0.analyticsservice.exception;
+
+public class InvalidWindowException extends RuntimeException {
+    public InvalidWindowException(String message) {
+        super(message);
+    }
+}
@@ -1,26 +1,163 @@
 package com.cbrit0.analyticsservice.kafka;
 
+import com.cbrit0.analyticsservice.aggregation.PatientEventAggregator;
+import com.cbrit0.analyticsservice.aggregation.PatientSketchAggregator;
+import com.cbrit0.analyticsservice.state.AnalyticsStateStore;
 import com.google.protobuf.InvalidProtocolBufferException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 import patient.event.PatientEvent;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @Service
-public class KafkaConsumer {
+public class KafkaConsumer implements ConsumerSeekAware {
     private static final Logger log = LoggerFactory.getLogger(KafkaConsumer.class);
+    private static final String TRACE_PARENT = "traceparent";
+
+    private final PatientEventAggregator patientEventAggregator;
+    private final PatientSketchAggregator patientSketchAggregator;
+    private final AnalyticsStateStore analyticsStateStore;
+    private final Counter consumedCounter;
+    private final Counter invalidCounter;
+    private final DistributionSummary batchSize;
+    private final Timer batchTimer;
+    private final Timer eventLag;
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public KafkaConsumer(PatientEventAggregator patientEventAggregator,
+                         PatientSketchAggregator patientSketchAggregator,
+                         AnalyticsStateStore analyticsStateStore,
+                         MeterRegistry meterRegistry,
+                         Tracer tracer,
+                         ObjectProvider<Propagator> propagator) {
+        this.patientEventAggregator = patientEventAggregator;
+        this.patientSketchAggregator = patientSketchAggregator;
+        this.analyticsStateStore = analyticsStateStore;
+        this.tracer = tracer;
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+        this.consumedCounter = Counter.builder("analytics.events.consumed")
+                .description("Patient events consumed from Kafka")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("analytics.events.invalid")
+                .description("Patient events skipped because they could not be parsed")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("analytics.batch.size")
+                .description("Records delivered per listener batch")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("analytics.batch.duration")
+                .description("Time to process one listener batch")
+                .register(meterRegistry);
+        this.eventLag = Timer.builder("analytics.events.lag")
+                .description("Time from a patient event being produced until it is aggregated")
+                .tag("topic", "patient")
+                .register(meterRegistry);
+    }
 
+    // Batch mode, concurrency and manual acks are configured under spring.kafka.listener.*;
+    // offsets are committed only once the whole batch has been handled
     @KafkaListener(topics = "patient", groupId = "analytics-service")
-    public void consumeEvent(byte[] event) {
+    public void consumeEvents(List<ConsumerRecord<String, byte[]>> records, Acknowledgment acknowledgment) {
+        long now = System.currentTimeMillis();
+        batchTimer.record(() -> analyticsStateStore.apply(records, () -> {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                if (record.timestamp() != ConsumerRecord.NO_TIMESTAMP) {
+                    eventLag.record(Math.max(now - record.timestamp(), 0), TimeUnit.MILLISECONDS);
+                }
+                PatientEvent patientEvent = parse(record);
+                if (patientEvent != null) {
+                    handleTraced(record, patientEvent);
+                }
+            }
+        }));
+        consumedCounter.increment(records.size());
+        batchSize.record(records.size());
+
+        acknowledgment.acknowledge();
+    }
+
+    // After a restart, partitions are rewound to the offsets included in the restored snapshot
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        analyticsStateStore.onPartitionsAssigned(assignments, callback);
+    }
+
+    private PatientEvent parse(ConsumerRecord<String, byte[]> record) {
         try {
-            PatientEvent patientEvent = PatientEvent.parseFrom(event);
-            log.info("Received patient event: [PatientId={}, PatientName={}, PatientEmail={}]",
+            return PatientEvent.parseFrom(record.value());
+        } catch (InvalidProtocolBufferException e) {
+            // A malformed record is skipped rather than blocking the partition behind it
+            invalidCounter.increment();
+            log.error("Error parsing PatientEvent at {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            return null;
+        }
+    }
+
+    // Records sent within a trace are handled in a consumer span that continues it; the batch itself has no single parent
+    private void handleTraced(ConsumerRecord<String, byte[]> record, PatientEvent patientEvent) {
+        if (record.headers().lastHeader(TRACE_PARENT) == null) {
+            handle(record.timestamp(), patientEvent);
+            return;
+        }
+
+        Span span = propagator.extract(record.headers(), KafkaConsumer::header)
+                .name("patient receive")
+                .kind(Span.Kind.CONSUMER)
+                .tag("messaging.system", "kafka")
+                .tag("messaging.destination.name", record.topic())
+                .tag("messaging.kafka.destination.partition", String.valueOf(record.partition()))
+                .tag("messaging.kafka.message.offset", String.valueOf(record.offset()))
+                .start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            handle(record.timestamp(), patientEvent);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static String header(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    // The record timestamp is the producer's send time, which stands in for the event time
+    private void handle(long timestamp, PatientEvent patientEvent) {
+        patientEventAggregator.record(timestamp, patientEvent.getEventType(), patientEvent.getPatientId());
+        patientSketchAggregator.record(timestamp, patientEvent.getEventType(), patientEvent.getPatientId(),
+                patientEvent.getEmail());
+
+        // Per-event logging is debug only; at INFO it was the bottleneck during bulk imports
+        if (log.isDebugEnabled()) {
+            log.debug("Received patient event: [EventType={}, PatientId={}, PatientName={}, PatientEmail={}, Version={}]",
+                    patientEvent.getEventType(),
                     patientEvent.getPatientId(),
                     patientEvent.getName(),
-                    patientEvent.getEmail());
-        } catch (InvalidProtocolBufferException e) {
-            log.error("Error parsing PatientEvent {}", e.getMessage());
+                    patientEvent.getEmail(),
+                    patientEvent.getVersion());
         }
     }
 }
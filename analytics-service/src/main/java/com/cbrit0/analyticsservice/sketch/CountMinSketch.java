@@ -0,0 +1,109 @@
+package com.cbrit0.analyticsservice.sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Frequency estimator over depth rows of width counters. Estimates never undercount; with width = ceil(e / epsilon)
+// and depth = ceil(ln(1 / delta)) an estimate exceeds the true count by more than epsilon * total with probability
+// at most delta. Sketches with the same dimensions merge by adding their counters.
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private long total;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Count-Min width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+    }
+
+    public static CountMinSketch withErrorBounds(double epsilon, double delta) {
+        return new CountMinSketch(widthFor(epsilon), depthFor(delta));
+    }
+
+    public static int widthFor(double epsilon) {
+        return (int) Math.ceil(Math.E / epsilon);
+    }
+
+    public static int depthFor(double delta) {
+        return (int) Math.ceil(Math.log(1 / delta));
+    }
+
+    public void add(long hash, long count) {
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(hash, row)] += count;
+        }
+        total += count;
+    }
+
+    public long estimate(long hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row * width + column(hash, row)]);
+        }
+        return min;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge Count-Min sketches of different dimensions");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    public void clear() {
+        Arrays.fill(counters, 0);
+        total = 0;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    // Largest overestimate expected for any key, i.e. epsilon * total
+    public long errorBound() {
+        return (long) Math.ceil(Math.E / width * total);
+    }
+
+    // Probability that a single estimate stays within errorBound(), i.e. 1 - delta
+    public double confidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    public int sizeInBytes() {
+        return counters.length * Long.BYTES;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(depth);
+        out.writeLong(total);
+        for (long counter : counters) {
+            out.writeLong(counter);
+        }
+    }
+
+    public static CountMinSketch readFrom(DataInput in) throws IOException {
+        CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+        sketch.total = in.readLong();
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = in.readLong();
+        }
+        return sketch;
+    }
+
+    // Kirsch-Mitzenmacher: row hashes derived from the two halves of one 64-bit hash
+    private int column(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+}
@@ -0,0 +1,22 @@
+package com.cbrit0.analyticsservice.sketch;
+
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    // FNV-1a over the UTF-16 chars followed by the murmur3 64-bit finalizer, so every output bit depends on every input bit
+    public static long hash64(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
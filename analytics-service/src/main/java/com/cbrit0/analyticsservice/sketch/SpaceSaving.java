@@ -0,0 +1,203 @@
+package com.cbrit0.analyticsservice.sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Heavy-hitters summary that tracks at most capacity keys. A reported count never undercounts and overcounts by at
+// most its error, which is itself at most total / capacity, so every key with a true count above total / capacity
+// is guaranteed to be present. Summaries merge by adding counts; the merged error stays within the combined total / capacity.
+public class SpaceSaving {
+
+    public record HeavyHitter(String key, long count, long error) {
+    }
+
+    private final int capacity;
+    // Binary min-heap on counts, so the entry to replace on a miss is always at index 0
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Space-Saving capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public void add(String key, long count) {
+        total += count;
+
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += count;
+            siftDown(position);
+        } else if (size < capacity) {
+            set(size, key, count, 0);
+            size++;
+            siftUp(size - 1);
+        } else {
+            // Replace the smallest entry; its count becomes the newcomer's possible overestimate
+            positions.remove(keys[0]);
+            long floor = counts[0];
+            set(0, key, floor + count, floor);
+            siftDown(0);
+        }
+    }
+
+    public List<HeavyHitter> top(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        List<HeavyHitter> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new HeavyHitter(keys[i], counts[i], errors[i]));
+        }
+        entries.sort(Comparator.comparingLong(HeavyHitter::count).reversed());
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    public void merge(SpaceSaving other) {
+        if (other.capacity != capacity) {
+            throw new IllegalArgumentException("Cannot merge Space-Saving summaries of different capacity");
+        }
+
+        // A key missing from a full summary may still have occurred there up to that summary's minimum count
+        long missingHere = size == capacity ? counts[0] : 0;
+        long missingThere = other.size == other.capacity ? other.counts[0] : 0;
+
+        Map<String, HeavyHitter> merged = new HashMap<>((size + other.size) * 2);
+        for (int i = 0; i < size; i++) {
+            merged.put(keys[i], new HeavyHitter(keys[i], counts[i] + missingThere, errors[i] + missingThere));
+        }
+        for (int i = 0; i < other.size; i++) {
+            String key = other.keys[i];
+            HeavyHitter mine = merged.get(key);
+            if (mine == null) {
+                merged.put(key, new HeavyHitter(key, other.counts[i] + missingHere, other.errors[i] + missingHere));
+            } else {
+                merged.put(key, new HeavyHitter(key, mine.count() - missingThere + other.counts[i],
+                        mine.error() - missingThere + other.errors[i]));
+            }
+        }
+
+        List<HeavyHitter> kept = merged.values().stream()
+                .sorted(Comparator.comparingLong(HeavyHitter::count).reversed())
+                .limit(capacity)
+                .toList();
+        long mergedTotal = total + other.total;
+        clear();
+        for (HeavyHitter hitter : kept) {
+            set(size, hitter.key(), hitter.count(), hitter.error());
+            size++;
+            siftUp(size - 1);
+        }
+        total = mergedTotal;
+    }
+
+    public void clear() {
+        positions.clear();
+        for (int i = 0; i < size; i++) {
+            keys[i] = null;
+        }
+        size = 0;
+        total = 0;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public long errorBound() {
+        return total / capacity;
+    }
+
+    // Keys plus the heap arrays; a rough figure that ignores HashMap overhead
+    public int sizeInBytes() {
+        int keyBytes = 0;
+        for (int i = 0; i < size; i++) {
+            keyBytes += keys[i].length() * 2;
+        }
+        return keyBytes + capacity * (2 * Long.BYTES + 8);
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeLong(total);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeUTF(keys[i]);
+            out.writeLong(counts[i]);
+            out.writeLong(errors[i]);
+        }
+    }
+
+    public static SpaceSaving readFrom(DataInput in) throws IOException {
+        SpaceSaving summary = new SpaceSaving(in.readInt());
+        summary.total = in.readLong();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            summary.set(i, in.readUTF(), in.readLong(), in.readLong());
+        }
+        // Written in heap order, so the heap invariant already holds
+        summary.size = size;
+        return summary;
+    }
+
+    private void set(int index, String key, long count, long error) {
+        keys[index] = key;
+        counts[index] = count;
+        errors[index] = error;
+        positions.put(key, index);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (counts[parent] <= counts[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        long count = counts[a];
+        long error = errors[a];
+        set(a, keys[b], counts[b], errors[b]);
+        set(b, key, count, error);
+    }
+}
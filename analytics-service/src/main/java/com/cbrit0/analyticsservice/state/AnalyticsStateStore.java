@@ -0,0 +1,255 @@
+package com.cbrit0.analyticsservice.state;
+
+import com.cbrit0.analyticsservice.aggregation.PatientEventAggregator;
+import com.cbrit0.analyticsservice.aggregation.PatientSketchAggregator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+// Periodically writes the aggregates, together with the Kafka offsets they include, to a local snapshot file.
+// On restart the aggregates are restored and each partition is replayed only from its snapshot offset
+// up to where the group had committed.
+@Component
+public class AnalyticsStateStore {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsStateStore.class);
+    private static final int MAGIC = 0x414e4c59;
+    private static final int FORMAT_VERSION = 1;
+    private static final String SNAPSHOT_FILE = "aggregates.snapshot";
+
+    private final PatientEventAggregator patientEventAggregator;
+    private final PatientSketchAggregator patientSketchAggregator;
+    private final boolean enabled;
+    private final Path directory;
+    private final Timer snapshotTimer;
+    private final MeterRegistry meterRegistry;
+
+    // Batches apply concurrently under the read lock; a snapshot takes the write lock so aggregates and offsets agree
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+    // Next offset per partition whose records are already reflected in the aggregates
+    private final Map<TopicPartition, Long> appliedOffsets = new ConcurrentHashMap<>();
+    // Partitions still replaying, with the committed offset they have to reach
+    private final Map<TopicPartition, Long> replayTargets = new ConcurrentHashMap<>();
+    private volatile long replayStartNanos;
+
+    public AnalyticsStateStore(PatientEventAggregator patientEventAggregator,
+                               PatientSketchAggregator patientSketchAggregator,
+                               MeterRegistry meterRegistry,
+                               @Value("${analytics.state.enabled:true}") boolean enabled,
+                               @Value("${analytics.state.dir}") Path directory) {
+        this.patientEventAggregator = patientEventAggregator;
+        this.patientSketchAggregator = patientSketchAggregator;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.snapshotTimer = Timer.builder("analytics.state.snapshot")
+                .description("Time to capture and write an aggregate snapshot")
+                .register(meterRegistry);
+    }
+
+    // Runs before the listener containers start, so no batch can be applied to the aggregates first
+    @PostConstruct
+    public void restore() {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!enabled || !Files.exists(snapshot)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            byte[] bytes = Files.readAllBytes(snapshot);
+            Map<TopicPartition, Long> offsets = read(bytes);
+            appliedOffsets.putAll(offsets);
+            Duration took = Duration.ofNanos(System.nanoTime() - start);
+            recordRecovery("snapshot-load", took);
+            log.info("Restored analytics aggregates from {} ({} bytes) covering offsets {} in {} ms",
+                    snapshot, bytes.length, offsets, took.toMillis());
+        } catch (IOException | IllegalStateException e) {
+            // Starting empty is always safe; the aggregates just won't include events from before the restart
+            log.warn("Ignoring analytics snapshot {}: {}", snapshot, e.getMessage());
+            appliedOffsets.clear();
+        }
+    }
+
+    // Called from the listener's partition assignment; rewinds each partition to the offset the aggregates include
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments.forEach((partition, committed) -> {
+            Long applied = appliedOffsets.get(partition);
+            if (applied == null || applied.equals(committed)) {
+                return;
+            }
+            if (applied < committed) {
+                if (replayTargets.isEmpty()) {
+                    replayStartNanos = System.nanoTime();
+                }
+                replayTargets.put(partition, committed);
+            }
+            log.info("Seeking {} to snapshot offset {} (committed {})", partition, applied, committed);
+            callback.seek(partition.topic(), partition.partition(), applied);
+        });
+    }
+
+    public void apply(List<ConsumerRecord<String, byte[]>> records, Runnable processing) {
+        stateLock.readLock().lock();
+        try {
+            processing.run();
+
+            Map<TopicPartition, Long> batchOffsets = new HashMap<>();
+            for (ConsumerRecord<String, byte[]> record : records) {
+                batchOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset() + 1, Math::max);
+            }
+            appliedOffsets.putAll(batchOffsets);
+            if (!replayTargets.isEmpty()) {
+                trackReplay(batchOffsets);
+            }
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.state.snapshot-interval-ms:60000}",
+            initialDelayString = "${analytics.state.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            snapshotTimer.recordCallable(() -> {
+                write(capture());
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Error writing analytics snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    // Listener containers have stopped by now, so this snapshot is exactly what was committed
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    private byte[] capture() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4 * 1024 * 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+
+        stateLock.writeLock().lock();
+        try {
+            out.writeInt(appliedOffsets.size());
+            for (Map.Entry<TopicPartition, Long> entry : appliedOffsets.entrySet()) {
+                out.writeUTF(entry.getKey().topic());
+                out.writeInt(entry.getKey().partition());
+                out.writeLong(entry.getValue());
+            }
+            patientEventAggregator.writeTo(out);
+            patientSketchAggregator.writeTo(out);
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+
+        out.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        return bytes.toByteArray();
+    }
+
+    // Written to a temporary file, forced to disk, then renamed over the previous snapshot
+    private void write(byte[] snapshot) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Wrote analytics snapshot of {} bytes", snapshot.length);
+    }
+
+    private Map<TopicPartition, Long> read(byte[] snapshot) throws IOException {
+        // Verify the checksum before touching the aggregates, so a torn or corrupt file leaves them empty
+        int bodyLength = snapshot.length - Long.BYTES;
+        if (bodyLength < 2 * Integer.BYTES) {
+            throw new IllegalStateException("snapshot is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(snapshot, 0, bodyLength);
+        if (ByteBuffer.wrap(snapshot, bodyLength, Long.BYTES).getLong() != crc.getValue()) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot, 0, bodyLength));
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IllegalStateException("not an analytics snapshot of format " + FORMAT_VERSION);
+        }
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        int partitions = in.readInt();
+        for (int i = 0; i < partitions; i++) {
+            offsets.put(new TopicPartition(in.readUTF(), in.readInt()), in.readLong());
+        }
+        // Both sections are decoded and validated before either is applied, so a rejected sketch section can't leave
+        // the windows holding snapshot data while the offsets say the service started empty
+        PatientEventAggregator.State windows = patientEventAggregator.read(in);
+        PatientSketchAggregator.State sketches = patientSketchAggregator.read(in);
+        patientEventAggregator.restore(windows);
+        patientSketchAggregator.restore(sketches);
+        return offsets;
+    }
+
+    private void trackReplay(Map<TopicPartition, Long> batchOffsets) {
+        batchOffsets.forEach((partition, offset) -> replayTargets.computeIfPresent(partition,
+                (ignored, target) -> offset >= target ? null : target));
+        if (replayTargets.isEmpty() && replayStartNanos != 0) {
+            Duration replay = Duration.ofNanos(System.nanoTime() - replayStartNanos);
+            replayStartNanos = 0;
+            recordRecovery("replay", replay);
+            long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            log.info("Analytics aggregates caught up with committed offsets after a {} ms replay, {} ms after JVM start",
+                    replay.toMillis(), sinceJvmStart);
+        }
+    }
+
+    private void recordRecovery(String phase, Duration duration) {
+        Timer.builder("analytics.state.recovery")
+                .description("Time spent restoring aggregates on startup")
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(duration.toNanos(), TimeUnit.NANOSECONDS);
+    }
+}
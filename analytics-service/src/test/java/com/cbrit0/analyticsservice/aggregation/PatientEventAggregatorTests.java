@@ -0,0 +1,127 @@
+package com.cbrit0.analyticsservice.aggregation;
+
+import com.cbrit0.analyticsservice.dto.WindowAggregateDTO;
+import com.cbrit0.analyticsservice.dto.WindowedAnalyticsResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientEventAggregatorTests {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:00:30Z"));
+    private final PatientEventAggregator aggregator = new PatientEventAggregator(
+            clock, Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofHours(1), 12);
+
+    @Test
+    void tumblingAndSlidingWindowsSumTheirBuckets() {
+        record("2025-01-01T09:59:10Z", "PATIENT_CREATED", "a");
+        record("2025-01-01T10:00:05Z", "PATIENT_CREATED", "b");
+        record("2025-01-01T10:00:25Z", "PATIENT_CREATED", "c");
+        record("2025-01-01T09:56:00Z", "PATIENT_UPDATED", "a");
+        record("2025-01-01T09:50:00Z", "PATIENT_DELETED", "d");
+
+        WindowedAnalyticsResponseDTO snapshot = aggregator.snapshot();
+
+        WindowAggregateDTO current = snapshot.getCurrentTumblingWindow();
+        assertEquals("2025-01-01T10:00:00Z", current.getStart());
+        assertEquals("2025-01-01T10:01:00Z", current.getEnd());
+        assertEquals(2, current.getRegistrations());
+
+        assertEquals(1, snapshot.getPreviousTumblingWindow().getRegistrations());
+
+        WindowAggregateDTO sliding = snapshot.getSlidingWindow();
+        assertEquals("2025-01-01T09:55:40Z", sliding.getStart());
+        assertEquals(3, sliding.getRegistrations());
+        assertEquals(1L, sliding.getEventCounts().get("PATIENT_UPDATED"));
+        assertEquals(0L, sliding.getEventCounts().get("PATIENT_DELETED"));
+        assertEquals(3, sliding.getDistinctPatients());
+
+        assertEquals(1L, snapshot.getTotalEventCounts().get("PATIENT_DELETED"));
+    }
+
+    @Test
+    void unknownEventTypesAreCountedAsOther() {
+        record("2025-01-01T10:00:00Z", "PATIENT_MERGED", "a");
+
+        assertEquals(1L, aggregator.snapshot().getCurrentTumblingWindow().getEventCounts().get("OTHER"));
+    }
+
+    @Test
+    void slotsAreRecycledAsTimeMovesOn() {
+        record("2025-01-01T10:00:00Z", "PATIENT_CREATED", "a");
+        clock.set(Instant.parse("2025-01-01T11:00:30Z"));
+        record("2025-01-01T11:00:00Z", "PATIENT_CREATED", "b");
+
+        WindowedAnalyticsResponseDTO snapshot = aggregator.snapshot();
+        assertEquals(1, snapshot.getCurrentTumblingWindow().getRegistrations());
+        assertEquals(2L, snapshot.getTotalEventCounts().get("PATIENT_CREATED"));
+    }
+
+    @Test
+    void eventsOlderThanTheRetentionAreDroppedAsLate() {
+        record("2025-01-01T10:00:00Z", "PATIENT_CREATED", "a");
+        record("2025-01-01T09:00:00Z", "PATIENT_CREATED", "b");
+
+        WindowedAnalyticsResponseDTO snapshot = aggregator.snapshot();
+        assertEquals(1, snapshot.getLateEvents());
+        assertEquals(1, snapshot.getCurrentTumblingWindow().getRegistrations());
+    }
+
+    @Test
+    void distinctPatientsAreEstimatedWithinTheSketchError() {
+        for (int repeat = 0; repeat < 3; repeat++) {
+            for (int patient = 0; patient < 2000; patient++) {
+                record("2025-01-01T10:00:10Z", "PATIENT_UPDATED", "patient-" + patient);
+            }
+        }
+
+        long estimate = aggregator.snapshot().getCurrentTumblingWindow().getDistinctPatients();
+        // Precision 12 has a 1.6% standard error; allow three of them
+        assertTrue(Math.abs(estimate - 2000) <= 100, "estimate was " + estimate);
+    }
+
+    @Test
+    void windowsMustBeWholeBuckets() {
+        assertThrows(IllegalArgumentException.class, () -> new PatientEventAggregator(
+                clock, Duration.ofSeconds(10), Duration.ofSeconds(15), Duration.ofMinutes(5), Duration.ofHours(1), 12));
+    }
+
+    private void record(String timestamp, String eventType, String patientId) {
+        aggregator.record(Instant.parse(timestamp).toEpochMilli(), eventType, patientId);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.cbrit0.analyticsservice.controller;
+
+import com.cbrit0.analyticsservice.aggregation.PatientEventAggregator;
+import com.cbrit0.analyticsservice.aggregation.PatientSketchAggregator;
+import com.cbrit0.analyticsservice.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AnalyticsControllerTests {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AnalyticsController(
+                    new PatientEventAggregator(Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofMinutes(5),
+                            Duration.ofHours(1), 10),
+                    new PatientSketchAggregator(Duration.ofHours(1), Duration.ofHours(24), 10, 0.01, 0.01, 10)))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void negativeTopIsABadRequest() throws Exception {
+        mockMvc.perform(get("/analytics/sketches").param("top", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid top '-1'; it must be zero or more"));
+    }
+
+    @Test
+    void zeroTopReturnsNoDomains() throws Exception {
+        mockMvc.perform(get("/analytics/sketches").param("top", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.topEmailDomains").isEmpty());
+    }
+
+    @Test
+    void unparseableWindowIsABadRequest() throws Exception {
+        mockMvc.perform(get("/analytics/sketches").param("window", "yesterday"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid window 'yesterday'"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.cbrit0.analyticsservice.kafka;
+
+import com.cbrit0.analyticsservice.InMemoryTracing;
+import com.cbrit0.analyticsservice.aggregation.PatientEventAggregator;
+import com.cbrit0.analyticsservice.aggregation.PatientSketchAggregator;
+import com.cbrit0.analyticsservice.state.AnalyticsStateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import patient.event.PatientEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KafkaConsumerTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PatientEventAggregator patientEventAggregator = new PatientEventAggregator(
+            Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofHours(1), 10);
+    private final PatientSketchAggregator patientSketchAggregator = new PatientSketchAggregator(
+            Duration.ofHours(1), Duration.ofHours(24), 10, 0.01, 0.01, 10);
+    private final AnalyticsStateStore analyticsStateStore = new AnalyticsStateStore(
+            patientEventAggregator, patientSketchAggregator, meterRegistry, false, Path.of("unused"));
+    private final InMemoryTracing tracing = new InMemoryTracing();
+    private final KafkaConsumer kafkaConsumer = new KafkaConsumer(patientEventAggregator, patientSketchAggregator,
+            analyticsStateStore, meterRegistry, tracing.tracer(), tracing.propagator());
+
+    @AfterEach
+    void closeTracing() {
+        tracing.close();
+    }
+
+    @Test
+    void malformedRecordsAreSkippedAndTheBatchIsStillAcknowledged() {
+        AtomicInteger acknowledgements = new AtomicInteger();
+
+        kafkaConsumer.consumeEvents(List.of(
+                record(0, event("PATIENT_CREATED").toByteArray()),
+                record(1, new byte[]{(byte) 0xff, 0x01}),
+                record(2, event("PATIENT_UPDATED").toByteArray())
+        ), acknowledgements::incrementAndGet);
+
+        assertEquals(1, acknowledgements.get());
+        assertEquals(3, meterRegistry.get("analytics.events.consumed").counter().count());
+        assertEquals(1, meterRegistry.get("analytics.events.invalid").counter().count());
+        assertEquals(1, meterRegistry.get("analytics.batch.size").summary().count());
+        assertEquals(1L, patientEventAggregator.snapshot().getTotalEventCounts().get("PATIENT_CREATED"));
+        assertEquals(1L, patientEventAggregator.snapshot().getTotalEventCounts().get("PATIENT_UPDATED"));
+    }
+
+    @Test
+    void recordsWithTraceContextAreHandledInAConsumerSpanOfThatTrace() {
+        String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+        String producerSpanId = "00f067aa0ba902b7";
+        ConsumerRecord<String, byte[]> traced = record(0, event("PATIENT_CREATED").toByteArray());
+        traced.headers().add("traceparent", ("00-" + traceId + "-" + producerSpanId + "-01").getBytes(StandardCharsets.UTF_8));
+
+        kafkaConsumer.consumeEvents(List.of(traced, record(1, event("PATIENT_UPDATED").toByteArray())), () -> {
+        });
+
+        // Only the record that carried a trace gets a span
+        assertEquals(1, tracing.spans().size());
+        SpanData receive = tracing.spans().getFirst();
+        assertEquals("patient receive", receive.getName());
+        assertEquals(SpanKind.CONSUMER, receive.getKind());
+        assertEquals(traceId, receive.getTraceId());
+        assertEquals(producerSpanId, receive.getParentSpanId());
+        assertEquals(2L, patientEventAggregator.snapshot().getTotalEventCounts().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, byte[] value) {
+        return new ConsumerRecord<>("patient", 0, offset, null, value);
+    }
+
+    private static PatientEvent event(String eventType) {
+        return PatientEvent.newBuilder()
+                .setPatientId("patient-1")
+                .setName("Jane")
+                .setEmail("jane@example.com")
+                .setEventType(eventType)
+                .build();
+    }
+}
@@ -0,0 +1,206 @@
+package com.cbrit0.analyticsservice.sketch;
+
+import com.cbrit0.analyticsservice.sketch.SpaceSaving.HeavyHitter;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Compares each sketch with exact counting on synthetic patient data
+class SketchAccuracyTests {
+    private static final Logger log = LoggerFactory.getLogger(SketchAccuracyTests.class);
+
+    private static final int DOMAINS = 5_000;
+    private static final int REGISTRATIONS = 500_000;
+    // Lower bound for an exact set of UUIDs: the 16 id bytes alone, before any HashSet or object overhead
+    private static final int UUID_BYTES = 16;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void hyperLogLogStaysWithinThreeStandardErrors() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        Set<String> exact = new HashSet<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            // Every patient shows up twice on average
+            String patientId = new UUID(0, random.nextInt(500_000)).toString();
+            sketch.add(Hashing.hash64(patientId));
+            exact.add(patientId);
+        }
+
+        double error = Math.abs(sketch.estimate() - exact.size()) / (double) exact.size();
+        report("HyperLogLog", exact.size(), sketch.estimate(), sketch.sizeInBytes(), (long) exact.size() * UUID_BYTES);
+        assertTrue(error <= 3 * sketch.relativeStandardError(), "relative error was " + error);
+        assertTrue(sketch.sizeInBytes() * 100L < (long) exact.size() * UUID_BYTES);
+    }
+
+    @Test
+    void hyperLogLogIsExactEnoughForSmallCounts() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (int i = 0; i < 100; i++) {
+            sketch.add(Hashing.hash64("patient-" + i));
+        }
+
+        assertEquals(100, sketch.estimate(), 1);
+    }
+
+    @Test
+    void countMinNeverUndercountsAndStaysWithinItsBound() {
+        CountMinSketch sketch = CountMinSketch.withErrorBounds(0.001, 0.01);
+        Map<String, Long> exact = new HashMap<>();
+        for (String domain : zipfDomains(REGISTRATIONS)) {
+            sketch.add(Hashing.hash64(domain), 1);
+            exact.merge(domain, 1L, Long::sum);
+        }
+
+        int withinBound = 0;
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(Hashing.hash64(entry.getKey()));
+            assertTrue(estimate >= entry.getValue());
+            if (estimate - entry.getValue() <= sketch.errorBound()) {
+                withinBound++;
+            }
+        }
+
+        report("Count-Min", exact.size(), sketch.errorBound(), sketch.sizeInBytes(), exactMapBytes(exact));
+        assertTrue(withinBound >= sketch.confidence() * exact.size(), withinBound + " of " + exact.size() + " within bound");
+    }
+
+    @Test
+    void spaceSavingFindsEveryHeavyHitter() {
+        SpaceSaving summary = new SpaceSaving(200);
+        Map<String, Long> exact = new HashMap<>();
+        for (String domain : zipfDomains(REGISTRATIONS)) {
+            summary.add(domain, 1);
+            exact.merge(domain, 1L, Long::sum);
+        }
+
+        Map<String, HeavyHitter> reported = new HashMap<>();
+        summary.top(200).forEach(hitter -> reported.put(hitter.key(), hitter));
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            HeavyHitter hitter = reported.get(entry.getKey());
+            if (entry.getValue() > summary.errorBound()) {
+                assertTrue(hitter != null, entry.getKey() + " is a heavy hitter but was not reported");
+            }
+            if (hitter != null) {
+                assertTrue(hitter.count() >= entry.getValue());
+                assertTrue(hitter.count() - hitter.error() <= entry.getValue());
+                assertTrue(hitter.error() <= summary.errorBound());
+            }
+        }
+
+        List<String> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(10).map(Map.Entry::getKey).toList();
+        List<String> reportedTop = summary.top(10).stream().map(HeavyHitter::key).toList();
+        report("Space-Saving", exact.size(), summary.errorBound(), summary.sizeInBytes(), exactMapBytes(exact));
+        assertEquals(exactTop, reportedTop);
+    }
+
+    @Test
+    void mergingPartitionsMatchesOneSketchOverTheWholeStream() throws IOException {
+        HyperLogLog whole = new HyperLogLog(12);
+        HyperLogLog[] parts = {new HyperLogLog(12), new HyperLogLog(12)};
+        CountMinSketch wholeCounts = new CountMinSketch(500, 4);
+        CountMinSketch[] partCounts = {new CountMinSketch(500, 4), new CountMinSketch(500, 4)};
+        SpaceSaving wholeTop = new SpaceSaving(100);
+        SpaceSaving[] partTop = {new SpaceSaving(100), new SpaceSaving(100)};
+
+        List<String> domains = zipfDomains(100_000);
+        for (int i = 0; i < domains.size(); i++) {
+            // Two consumer instances, each owning some of the partitions
+            int instance = i % 2;
+            long hash = Hashing.hash64(domains.get(i));
+            whole.add(hash);
+            parts[instance].add(hash);
+            wholeCounts.add(hash, 1);
+            partCounts[instance].add(hash, 1);
+            wholeTop.add(domains.get(i), 1);
+            partTop[instance].add(domains.get(i), 1);
+        }
+
+        HyperLogLog merged = roundTrip(parts[0]);
+        merged.merge(roundTrip(parts[1]));
+        assertEquals(whole.estimate(), merged.estimate());
+
+        CountMinSketch mergedCounts = roundTrip(partCounts[0]);
+        mergedCounts.merge(roundTrip(partCounts[1]));
+        assertEquals(wholeCounts.total(), mergedCounts.total());
+        assertEquals(wholeCounts.estimate(Hashing.hash64("domain-0.example")),
+                mergedCounts.estimate(Hashing.hash64("domain-0.example")));
+
+        SpaceSaving mergedTop = roundTrip(partTop[0]);
+        mergedTop.merge(roundTrip(partTop[1]));
+        assertEquals(wholeTop.total(), mergedTop.total());
+        assertArrayEquals(keys(wholeTop.top(5)), keys(mergedTop.top(5)));
+        for (HeavyHitter hitter : mergedTop.top(100)) {
+            assertTrue(hitter.error() <= mergedTop.errorBound());
+        }
+    }
+
+    // Domain popularity follows a Zipf distribution with exponent 1, like real email providers
+    private List<String> zipfDomains(int count) {
+        double[] cumulative = new double[DOMAINS];
+        double sum = 0;
+        for (int rank = 0; rank < DOMAINS; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+
+        String[] domains = new String[count];
+        for (int i = 0; i < count; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            domains[i] = "domain-" + (rank < 0 ? -rank - 1 : rank) + ".example";
+        }
+        return Arrays.asList(domains);
+    }
+
+    private static long exactMapBytes(Map<String, Long> exact) {
+        // Key chars plus one long per entry, again ignoring HashMap overhead
+        return exact.keySet().stream().mapToLong(key -> key.length() * 2L + Long.BYTES).sum();
+    }
+
+    private static void report(String sketch, long exactSize, long estimateOrBound, long sketchBytes, long exactBytes) {
+        log.info("{}: exact size {}, estimate/bound {}, sketch {} bytes vs exact >= {} bytes",
+                sketch, exactSize, estimateOrBound, sketchBytes, exactBytes);
+    }
+
+    private static String[] keys(List<HeavyHitter> hitters) {
+        return hitters.stream().map(HeavyHitter::key).toArray(String[]::new);
+    }
+
+    private static HyperLogLog roundTrip(HyperLogLog sketch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+        return HyperLogLog.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static CountMinSketch roundTrip(CountMinSketch sketch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+        return CountMinSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static SpaceSaving roundTrip(SpaceSaving sketch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+        return SpaceSaving.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
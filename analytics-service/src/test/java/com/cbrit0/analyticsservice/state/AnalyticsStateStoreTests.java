@@ -0,0 +1,141 @@
+package com.cbrit0.analyticsservice.state;
+
+import com.cbrit0.analyticsservice.aggregation.PatientEventAggregator;
+import com.cbrit0.analyticsservice.aggregation.PatientSketchAggregator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AnalyticsStateStoreTests {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("patient", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("patient", 1);
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void restartRestoresAggregatesAndReplaysOnlyPastTheSnapshot() {
+        Instance before = new Instance();
+        before.consume(PARTITION_0, 0, 100);
+        before.consume(PARTITION_1, 0, 40);
+        before.store.snapshot();
+        // Consumed and committed after the snapshot, so lost from memory on restart
+        before.consume(PARTITION_0, 100, 20);
+
+        Instance after = new Instance();
+        after.store.restore();
+        assertEquals(140L, after.registrations());
+
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+        after.store.onPartitionsAssigned(Map.of(PARTITION_0, 120L, PARTITION_1, 40L), callback);
+        verify(callback).seek("patient", 0, 100L);
+        verify(callback, never()).seek("patient", 1, 40L);
+
+        after.consume(PARTITION_0, 100, 20);
+        assertEquals(160L, after.registrations());
+        assertEquals(1, meterRegistry.get("analytics.state.recovery").tag("phase", "replay").timer().count());
+        assertEquals(1, meterRegistry.get("analytics.state.recovery").tag("phase", "snapshot-load").timer().count());
+    }
+
+    @Test
+    void corruptSnapshotsAreIgnored() throws IOException {
+        Instance before = new Instance();
+        before.consume(PARTITION_0, 0, 10);
+        before.store.snapshot();
+
+        Path snapshot = directory.resolve("aggregates.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x7f;
+        Files.write(snapshot, bytes);
+
+        Instance after = new Instance();
+        after.store.restore();
+        assertEquals(0L, after.registrations());
+
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+        after.store.onPartitionsAssigned(Map.of(PARTITION_0, 10L), callback);
+        verifyNoInteractions(callback);
+    }
+
+    @Test
+    void snapshotsFromOtherWindowSettingsAreIgnored() {
+        Instance before = new Instance();
+        before.consume(PARTITION_0, 0, 10);
+        before.store.snapshot();
+
+        Instance after = new Instance(Duration.ofSeconds(30));
+        after.store.restore();
+        assertEquals(0L, after.registrations());
+    }
+
+    @Test
+    void snapshotsFromOtherSketchSettingsLeaveTheWindowsEmptyToo() {
+        Instance before = new Instance();
+        before.consume(PARTITION_0, 0, 10);
+        before.store.snapshot();
+
+        // The window section still matches, but it must not be applied when the sketch section is rejected
+        Instance after = new Instance(Duration.ofSeconds(10), 20);
+        after.store.restore();
+        assertEquals(0L, after.registrations());
+
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+        after.store.onPartitionsAssigned(Map.of(PARTITION_0, 10L), callback);
+        verifyNoInteractions(callback);
+    }
+
+    private class Instance {
+        private final PatientEventAggregator windows;
+        private final AnalyticsStateStore store;
+
+        Instance() {
+            this(Duration.ofSeconds(10));
+        }
+
+        Instance(Duration bucket) {
+            this(bucket, 10);
+        }
+
+        Instance(Duration bucket, int topDomainCapacity) {
+            windows = new PatientEventAggregator(bucket, Duration.ofMinutes(1), Duration.ofMinutes(5),
+                    Duration.ofHours(1), 10);
+            PatientSketchAggregator sketches = new PatientSketchAggregator(Duration.ofHours(1), Duration.ofHours(2),
+                    10, 0.01, 0.01, topDomainCapacity);
+            store = new AnalyticsStateStore(windows, sketches, meterRegistry, true, directory);
+        }
+
+        void consume(TopicPartition partition, long fromOffset, int count) {
+            List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+            for (long offset = fromOffset; offset < fromOffset + count; offset++) {
+                records.add(new ConsumerRecord<>(partition.topic(), partition.partition(), offset, null, new byte[0]));
+            }
+            long now = System.currentTimeMillis();
+            store.apply(records, () -> records.forEach(record ->
+                    windows.record(now, "PATIENT_CREATED", "patient-" + record.offset())));
+        }
+
+        long registrations() {
+            return windows.snapshot().getTotalEventCounts().get("PATIENT_CREATED");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.cbrit0.apigateway.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    private static final String HTTP_CLIENT_REQUESTS = "http.client.requests";
+    private static final String GATEWAY_ROUTE_TAG = "spring.cloud.gateway.route.id";
+
+    // Proxied calls are observed as http.client.requests with gateway-specific tags, while the gateway's own WebClient
+    // (JWKS, remote validation) uses the standard tags; Prometheus needs one tag set per name, so proxied calls get theirs
+    @Bean
+    public MeterFilter gatewayClientRequestsFilter() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                if (id.getName().startsWith(HTTP_CLIENT_REQUESTS) && id.getTag(GATEWAY_ROUTE_TAG) != null) {
+                    return id.withName("spring.cloud.gateway." + id.getName());
+                }
+                return id;
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.cbrit0.apigateway.controller;
+
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+// Target of the CircuitBreaker filters' fallbackUri: open breakers and full bulkheads become 503, timeouts 504
+@RestController
+public class FallbackController {
+
+    @RequestMapping("/fallback/{service}")
+    public Mono<ResponseEntity<Map<String, String>>> fallback(@PathVariable String service, ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        HttpStatus status = isTimeout(cause) ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE;
+
+        Map<String, String> body = new HashMap<>();
+        body.put("message", status == HttpStatus.GATEWAY_TIMEOUT
+                ? service + " did not respond in time"
+                : service + " is temporarily unavailable");
+
+        return Mono.just(ResponseEntity.status(status).body(body));
+    }
+
+    private static boolean isTimeout(Throwable cause) {
+        return cause instanceof TimeoutException
+                || cause instanceof ResponseStatusException e && e.getStatusCode() == HttpStatus.GATEWAY_TIMEOUT;
+    }
+}
@@ -0,0 +1,9 @@
+package com.cbrit0.apigateway.exception;
+
+import io.jsonwebtoken.JwtException;
+
+public class UnknownSigningKeyException extends JwtException {
+    public UnknownSigningKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,110 @@
+package com.cbrit0.apigateway.filter;
+
+import com.cbrit0.apigateway.jwt.JwtPrincipal;
+import com.cbrit0.apigateway.ratelimit.ClientAddressResolver;
+import com.cbrit0.apigateway.ratelimit.RateLimitStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Optional;
+
+@Component
+public class RateLimitGatewayFilterFactory extends AbstractGatewayFilterFactory<RateLimitGatewayFilterFactory.Config> {
+    private final RateLimitStore rateLimitStore;
+    private final MeterRegistry meterRegistry;
+    private final ClientAddressResolver clientAddressResolver;
+
+    public RateLimitGatewayFilterFactory(RateLimitStore rateLimitStore, MeterRegistry meterRegistry,
+                                         ClientAddressResolver clientAddressResolver) {
+        super(Config.class);
+        this.rateLimitStore = rateLimitStore;
+        this.meterRegistry = meterRegistry;
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (config.getCapacity() < 1 || config.getRefillPerSecond() <= 0) {
+            throw new IllegalArgumentException("RateLimit needs capacity >= 1 and refillPerSecond > 0");
+        }
+
+        return (exchange, chain) -> {
+            String routeId = Optional.ofNullable(exchange.<Route>getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR))
+                    .map(Route::getId)
+                    .orElse("default");
+            String key = routeId + ":" + clientKey(exchange, config.getKeyBy());
+
+            return rateLimitStore.tryConsume(key, config.getCapacity(), config.getRefillPerSecond())
+                    .flatMap(decision -> {
+                        HttpHeaders headers = exchange.getResponse().getHeaders();
+                        headers.set("X-RateLimit-Limit", Integer.toString(config.getCapacity()));
+                        headers.set("X-RateLimit-Remaining", Long.toString(decision.remaining()));
+
+                        if (decision.allowed()) {
+                            return chain.filter(exchange);
+                        }
+
+                        meterRegistry.counter("gateway.rate_limit.rejected", "route", routeId).increment();
+                        long retryAfterSeconds = (decision.retryAfter().toMillis() + 999) / 1000;
+                        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+                        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                        return exchange.getResponse().setComplete();
+                    });
+        };
+    }
+
+    // Falls back to the client address when the route has no JwtValidation filter in front of this one
+    private String clientKey(ServerWebExchange exchange, KeyBy keyBy) {
+        JwtPrincipal principal = exchange.getAttribute(JwtValidationGatewayFilterFactory.JWT_PRINCIPAL_ATTRIBUTE);
+
+        if (keyBy == KeyBy.SUBJECT && principal != null && principal.subject() != null) {
+            return "sub:" + principal.subject();
+        }
+        if (keyBy == KeyBy.ROLE && principal != null && principal.role() != null) {
+            return "role:" + principal.role();
+        }
+
+        return "ip:" + clientAddressResolver.resolve(exchange.getRequest());
+    }
+
+    public enum KeyBy {
+        SUBJECT, ROLE, IP
+    }
+
+    public static class Config {
+        private KeyBy keyBy = KeyBy.SUBJECT;
+        private int capacity = 100;
+        private double refillPerSecond = 50;
+
+        public KeyBy getKeyBy() {
+            return keyBy;
+        }
+
+        public void setKeyBy(KeyBy keyBy) {
+            this.keyBy = keyBy;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.cbrit0.apigateway.jwt;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@ConditionalOnProperty(name = "auth.jwt.validation-mode", havingValue = "local", matchIfMissing = true)
+public class JwksKeySet {
+    private static final Logger log = LoggerFactory.getLogger(JwksKeySet.class);
+
+    private final WebClient webClient;
+    private final String jwksUri;
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+
+    private final AtomicReference<Mono<Void>> pendingRefresh = new AtomicReference<>();
+    private volatile Map<String, PublicKey> keysById = Map.of();
+    private volatile Instant lastRefreshAttempt = Instant.EPOCH;
+
+    public JwksKeySet(WebClient.Builder webClientBuilder,
+                      @Value("${auth.jwt.jwks-uri:}") String jwksUri,
+                      @Value("${auth.jwt.jwks-refresh-interval:5m}") Duration refreshInterval,
+                      @Value("${auth.jwt.jwks-min-refresh-interval:30s}") Duration minRefreshInterval) {
+        this.webClient = webClientBuilder.build();
+        this.jwksUri = jwksUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh().subscribe();
+    }
+
+    public Optional<PublicKey> find(String keyId) {
+        // Rotation is picked up in the background; requests keep using the keys already loaded
+        if (Instant.now().isAfter(lastRefreshAttempt.plus(refreshInterval))) {
+            refresh().subscribe();
+        }
+        return Optional.ofNullable(keyId).map(keysById::get);
+    }
+
+    // Concurrent callers share one in-flight fetch, and fetches are spaced at least minRefreshInterval apart
+    // so tokens with made-up key ids cannot be used to hammer auth-service
+    public Mono<Void> refresh() {
+        if (jwksUri.isBlank()) {
+            return Mono.empty();
+        }
+
+        return Mono.defer(() -> {
+            Mono<Void> pending = pendingRefresh.get();
+            if (pending != null) {
+                return pending;
+            }
+            if (Instant.now().isBefore(lastRefreshAttempt.plus(minRefreshInterval))) {
+                return Mono.empty();
+            }
+
+            Mono<Void> fetch = fetchKeys()
+                    .doOnSubscribe(subscription -> lastRefreshAttempt = Instant.now())
+                    .doOnNext(keys -> {
+                        keysById = keys;
+                        log.info("Loaded {} signing keys from {}", keys.size(), jwksUri);
+                    })
+                    .doOnError(e -> log.warn("Failed to load signing keys from {}: {}", jwksUri, e.getMessage()))
+                    .onErrorResume(e -> Mono.empty())
+                    .doFinally(signal -> pendingRefresh.set(null))
+                    .then()
+                    .cache();
+
+            if (!pendingRefresh.compareAndSet(null, fetch)) {
+                return Optional.ofNullable(pendingRefresh.get()).orElse(Mono.empty());
+            }
+            return fetch;
+        });
+    }
+
+    private Mono<Map<String, PublicKey>> fetchKeys() {
+        return webClient.get()
+                .uri(jwksUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(Duration.ofSeconds(5))
+                .map(JwksKeySet::parse);
+    }
+
+    private static Map<String, PublicKey> parse(String json) {
+        JwkSet jwkSet = Jwks.setParser().build().parse(json);
+        Map<String, PublicKey> keys = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet) {
+            Key key = jwk.toKey();
+            if (jwk.getId() != null && key instanceof PublicKey publicKey) {
+                keys.put(jwk.getId(), publicKey);
+            }
+        }
+        return Map.copyOf(keys);
+    }
+}
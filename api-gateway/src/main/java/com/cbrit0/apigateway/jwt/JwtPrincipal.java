@@ -0,0 +1,6 @@
+package com.cbrit0.apigateway.jwt;
+
+import java.time.Instant;
+
+public record JwtPrincipal(String subject, String role, Instant expiresAt) {
+}
@@ -0,0 +1,94 @@
+package com.cbrit0.apigateway.jwt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+@Component
+public class JwtValidationCache {
+    private final JwtVerifier jwtVerifier;
+    private final ObjectMapper objectMapper;
+    private final AsyncCache<String, ValidationResult> results;
+
+    public JwtValidationCache(JwtVerifier jwtVerifier,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${auth.jwt.cache.maximum-size:100000}") long maximumSize,
+                              @Value("${auth.jwt.cache.max-ttl:5m}") Duration maxTtl,
+                              @Value("${auth.jwt.cache.negative-ttl:5s}") Duration negativeTtl) {
+        this.jwtVerifier = jwtVerifier;
+        this.objectMapper = objectMapper;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String key, ValidationResult result) -> result.valid()
+                        ? min(maxTtl, Duration.between(Instant.now(), result.principal().expiresAt()))
+                        : negativeTtl))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "jwt.validation");
+    }
+
+    // Concurrent validations of the same token share one future, so only the first one reaches the verifier.
+    // Verifier failures other than a rejected token (e.g. auth-service unreachable) fail the future and are not cached
+    public Mono<JwtPrincipal> verify(String token) {
+        return Mono.fromFuture(() -> results.get(hash(token), (key, executor) -> jwtVerifier.verify(token)
+                        .then(Mono.fromCallable(() -> ValidationResult.valid(principal(token))))
+                        .onErrorResume(JwtException.class, e -> Mono.just(ValidationResult.invalid(e)))
+                        .toFuture()), true)
+                .flatMap(result -> result.valid() ? Mono.just(result.principal()) : Mono.error(result.error()));
+    }
+
+    // Only read once the signature has been verified, so the claims can be trusted
+    private JwtPrincipal principal(String token) throws IOException {
+        String[] parts = token.split("\\.");
+        JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+        JsonNode exp = claims.path("exp");
+        return new JwtPrincipal(
+                claims.path("sub").asText(null),
+                claims.path("role").asText(null),
+                exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : Instant.MAX);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Duration min(Duration maxTtl, Duration untilExpiry) {
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return maxTtl.compareTo(untilExpiry) <= 0 ? maxTtl : untilExpiry;
+    }
+
+    private record ValidationResult(boolean valid, JwtPrincipal principal, JwtException error) {
+        static ValidationResult valid(JwtPrincipal principal) {
+            return new ValidationResult(true, principal, null);
+        }
+
+        static ValidationResult invalid(JwtException error) {
+            return new ValidationResult(false, null, error);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.cbrit0.apigateway.jwt;
+
+import reactor.core.publisher.Mono;
+
+public interface JwtVerifier {
+
+    // Completes empty when the token is valid, errors with a JwtException otherwise
+    Mono<Void> verify(String token);
+}
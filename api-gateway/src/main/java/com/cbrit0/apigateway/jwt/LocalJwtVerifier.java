@@ -0,0 +1,67 @@
+package com.cbrit0.apigateway.jwt;
+
+import com.cbrit0.apigateway.exception.UnknownSigningKeyException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Base64;
+
+@Component
+@ConditionalOnProperty(name = "auth.jwt.validation-mode", havingValue = "local", matchIfMissing = true)
+public class LocalJwtVerifier implements JwtVerifier {
+    private final JwksKeySet jwksKeySet;
+    private final SecretKey secretKey;
+    private final JwtParser parser;
+
+    public LocalJwtVerifier(JwksKeySet jwksKeySet,
+                            @Value("${auth.jwt.secret:}") String secret,
+                            @Value("${auth.jwt.clock-skew:30s}") Duration clockSkew) {
+        this.jwksKeySet = jwksKeySet;
+        this.secretKey = secret.isBlank()
+                ? null
+                : Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret.getBytes(StandardCharsets.UTF_8)));
+        // Keys are chosen by the header's alg family so an HMAC secret can never verify an RS256 token or vice versa
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return resolveKey(header);
+                    }
+                })
+                .clockSkewSeconds(clockSkew.toSeconds())
+                .build();
+    }
+
+    @Override
+    public Mono<Void> verify(String token) {
+        return Mono.fromRunnable(() -> parser.parseSignedClaims(token))
+                .onErrorResume(UnknownSigningKeyException.class, e -> jwksKeySet.refresh()
+                        .then(Mono.fromRunnable(() -> parser.parseSignedClaims(token))))
+                .then();
+    }
+
+    private Key resolveKey(JwsHeader header) {
+        String algorithm = header.getAlgorithm();
+        if (algorithm.startsWith("HS")) {
+            if (secretKey == null) {
+                throw new JwtException("No HMAC secret configured for " + algorithm);
+            }
+            return secretKey;
+        }
+
+        return jwksKeySet.find(header.getKeyId())
+                .orElseThrow(() -> new UnknownSigningKeyException("Unknown signing key id: " + header.getKeyId()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.cbrit0.apigateway.jwt;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.jsonwebtoken.JwtException;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+@Component
+@ConditionalOnProperty(name = "auth.jwt.validation-mode", havingValue = "remote")
+public class RemoteJwtVerifier implements JwtVerifier {
+    private final WebClient webClient;
+    private final ReactiveCircuitBreaker circuitBreaker;
+
+    public RemoteJwtVerifier(WebClient.Builder webClientBuilder,
+                             ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory,
+                             @Value("${auth.service.url}") String authServiceUrl,
+                             @Value("${auth.service.connect-timeout:1s}") Duration connectTimeout,
+                             @Value("${auth.service.response-timeout:2s}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        this.webClient = webClientBuilder
+                .baseUrl(authServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        // Shares the auth-service breaker and bulkhead with the /auth route
+        this.circuitBreaker = circuitBreakerFactory.create("auth-service");
+    }
+
+    @Override
+    public Mono<Void> verify(String token) {
+        Mono<Void> call = webClient.get()
+                .uri("/validate")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .retrieve()
+                .toBodilessEntity()
+                .onErrorMap(WebClientResponseException.Unauthorized.class,
+                        e -> new JwtException("Token rejected by auth-service", e))
+                .then();
+
+        return circuitBreaker.run(call, e -> Mono.error(translate(e)));
+    }
+
+    // A rejected token stays a JwtException (401); anything else means auth-service could not answer
+    private static Throwable translate(Throwable e) {
+        if (e instanceof JwtException) {
+            return e;
+        }
+        if (e instanceof TimeoutException || e.getCause() instanceof ReadTimeoutException) {
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "auth-service did not respond in time", e);
+        }
+        if (e instanceof CallNotPermittedException || e instanceof BulkheadFullException) {
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "auth-service is temporarily unavailable", e);
+        }
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "auth-service validation failed", e);
+    }
+}
@@ -0,0 +1,54 @@
+package com.cbrit0.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+    // Idle buckets are dropped; a bucket idle that long would have refilled to capacity anyway
+    private final Cache<String, AtomicReference<Bucket>> buckets;
+
+    public InMemoryRateLimitStore(@Value("${gateway.rate-limit.memory.maximum-keys:100000}") long maximumKeys,
+                                  @Value("${gateway.rate-limit.memory.idle-timeout:10m}") Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, int capacity, double refillPerSecond) {
+        return Mono.fromSupplier(() -> consume(key, capacity, refillPerSecond, System.nanoTime()));
+    }
+
+    RateLimitDecision consume(String key, int capacity, double refillPerSecond, long nowNanos) {
+        AtomicReference<Bucket> bucket = buckets.get(key, k -> new AtomicReference<>(new Bucket(capacity, nowNanos)));
+
+        // Lock-free: retry the refill-and-take against the latest state until the compare-and-set wins
+        while (true) {
+            Bucket current = bucket.get();
+            long elapsedNanos = Math.max(0, nowNanos - current.refilledAtNanos());
+            double available = Math.min(capacity, current.tokens() + elapsedNanos / 1e9 * refillPerSecond);
+
+            if (available < 1) {
+                return RateLimitDecision.rejected(available, refillPerSecond);
+            }
+
+            Bucket next = new Bucket(available - 1, Math.max(nowNanos, current.refilledAtNanos()));
+            if (bucket.compareAndSet(current, next)) {
+                return RateLimitDecision.allowed(next.tokens());
+            }
+        }
+    }
+
+    private record Bucket(double tokens, long refilledAtNanos) {
+    }
+}
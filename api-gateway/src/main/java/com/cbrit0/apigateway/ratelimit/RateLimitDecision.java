@@ -0,0 +1,16 @@
+package com.cbrit0.apigateway.ratelimit;
+
+import java.time.Duration;
+
+public record RateLimitDecision(boolean allowed, long remaining, Duration retryAfter) {
+
+    public static RateLimitDecision allowed(double tokensLeft) {
+        return new RateLimitDecision(true, (long) Math.floor(tokensLeft), Duration.ZERO);
+    }
+
+    // Time until the bucket has refilled the one token the rejected request was missing
+    public static RateLimitDecision rejected(double tokensLeft, double refillPerSecond) {
+        long millis = (long) Math.ceil((1 - tokensLeft) / refillPerSecond * 1000);
+        return new RateLimitDecision(false, 0, Duration.ofMillis(Math.max(millis, 1)));
+    }
+}
@@ -0,0 +1,9 @@
+package com.cbrit0.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+public interface RateLimitStore {
+
+    // Takes one token from the bucket identified by key, refilling it first for the time elapsed since the last call
+    Mono<RateLimitDecision> tryConsume(String key, int capacity, double refillPerSecond);
+}
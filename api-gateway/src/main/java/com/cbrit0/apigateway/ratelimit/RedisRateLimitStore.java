@@ -0,0 +1,67 @@
+package com.cbrit0.apigateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "redis")
+public class RedisRateLimitStore implements RateLimitStore {
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimitStore.class);
+
+    // Refill and take run atomically inside Redis so every gateway replica shares one bucket per key.
+    // Redis' own clock is used so replica clock skew cannot mint tokens
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET = RedisScript.of("""
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(bucket[1]) or capacity
+            local ts = tonumber(bucket[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) / 1000 * rate)
+
+            local allowed = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+                allowed = 1
+            end
+
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate * 1000) + 1000)
+            return {allowed, tostring(tokens)}
+            """, List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisRateLimitStore(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, int capacity, double refillPerSecond) {
+        return redisTemplate.execute(TOKEN_BUCKET, List.of("rate-limit:" + key),
+                        List.of(Integer.toString(capacity), Double.toString(refillPerSecond)))
+                .next()
+                .map(result -> {
+                    boolean allowed = ((Number) result.get(0)).longValue() == 1;
+                    double tokens = Double.parseDouble(result.get(1).toString());
+                    return allowed
+                            ? RateLimitDecision.allowed(tokens)
+                            : RateLimitDecision.rejected(tokens, refillPerSecond);
+                })
+                // Fail open: losing the shared store must not take the whole API down with it
+                .onErrorResume(e -> {
+                    log.warn("Rate limit store unavailable, allowing request for {}: {}", key, e.getMessage());
+                    return Mono.just(RateLimitDecision.allowed(capacity));
+                });
+    }
+}
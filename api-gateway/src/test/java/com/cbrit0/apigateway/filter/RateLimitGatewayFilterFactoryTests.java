@@ -0,0 +1,81 @@
+package com.cbrit0.apigateway.filter;
+
+import com.cbrit0.apigateway.jwt.JwtPrincipal;
+import com.cbrit0.apigateway.ratelimit.ClientAddressResolver;
+import com.cbrit0.apigateway.ratelimit.InMemoryRateLimitStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitGatewayFilterFactoryTests {
+
+    // Stands in for the shared store; the filter only sees the RateLimitStore contract
+    private final RateLimitGatewayFilterFactory factory = new RateLimitGatewayFilterFactory(
+            new InMemoryRateLimitStore(1000, Duration.ofMinutes(10)), new SimpleMeterRegistry(),
+            new ClientAddressResolver(List.of()));
+
+    @Test
+    void rejectsWith429AndRetryAfterOnceSubjectExhaustsBucket() {
+        GatewayFilter filter = factory.apply(config(2, 0.5));
+
+        assertEquals(HttpStatus.OK, run(filter, exchangeFor("alice")).getResponse().getStatusCode());
+        assertEquals(HttpStatus.OK, run(filter, exchangeFor("alice")).getResponse().getStatusCode());
+
+        MockServerWebExchange rejected = run(filter, exchangeFor("alice"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("2", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("0", rejected.getResponse().getHeaders().getFirst("X-RateLimit-Remaining"));
+    }
+
+    @Test
+    void limitsEachSubjectIndependently() {
+        GatewayFilter filter = factory.apply(config(1, 1));
+
+        assertEquals(HttpStatus.OK, run(filter, exchangeFor("alice")).getResponse().getStatusCode());
+        assertEquals(HttpStatus.OK, run(filter, exchangeFor("bob")).getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, run(filter, exchangeFor("alice")).getResponse().getStatusCode());
+    }
+
+    @Test
+    void fallsBackToClientAddressWithoutPrincipal() {
+        GatewayFilter filter = factory.apply(config(1, 1));
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/patients"));
+
+        assertEquals(HttpStatus.OK, run(filter, first).getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+                run(filter, MockServerWebExchange.from(MockServerHttpRequest.get("/patients"))).getResponse().getStatusCode());
+    }
+
+    private static MockServerWebExchange run(GatewayFilter filter, MockServerWebExchange exchange) {
+        filter.filter(exchange, e -> {
+            e.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        }).block();
+        return exchange;
+    }
+
+    private static MockServerWebExchange exchangeFor(String subject) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/patients"));
+        exchange.getAttributes().put(JwtValidationGatewayFilterFactory.JWT_PRINCIPAL_ATTRIBUTE,
+                new JwtPrincipal(subject, "ADMIN", Instant.now().plusSeconds(3600)));
+        return exchange;
+    }
+
+    private static RateLimitGatewayFilterFactory.Config config(int capacity, double refillPerSecond) {
+        RateLimitGatewayFilterFactory.Config config = new RateLimitGatewayFilterFactory.Config();
+        config.setCapacity(capacity);
+        config.setRefillPerSecond(refillPerSecond);
+        return config;
+    }
+}
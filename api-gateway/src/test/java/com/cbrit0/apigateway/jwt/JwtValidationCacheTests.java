@@ -0,0 +1,102 @@
+package com.cbrit0.apigateway.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JwtValidationCacheTests {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void cachesPositiveResults() {
+        JwtValidationCache cache = cache(token -> Mono.empty(), Duration.ofMinutes(5));
+        String token = token(3600);
+
+        StepVerifier.create(cache.verify(token))
+                .assertNext(principal -> assertEquals("user", principal.subject()))
+                .verifyComplete();
+        StepVerifier.create(cache.verify(token)).expectNextCount(1).verifyComplete();
+
+        assertEquals(1, verifications.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.validation").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void cachesRejectionsBriefly() {
+        JwtValidationCache cache = cache(token -> Mono.error(new JwtException("bad")), Duration.ofMinutes(5));
+        String token = token(3600);
+
+        StepVerifier.create(cache.verify(token)).verifyError(JwtException.class);
+        StepVerifier.create(cache.verify(token)).verifyError(JwtException.class);
+
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void doesNotCacheVerifierFailures() {
+        JwtValidationCache cache = cache(token -> Mono.error(new IllegalStateException("auth-service down")),
+                Duration.ofMinutes(5));
+        String token = token(3600);
+
+        StepVerifier.create(cache.verify(token)).verifyError(IllegalStateException.class);
+        StepVerifier.create(cache.verify(token)).verifyError(IllegalStateException.class);
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void entriesExpireWithTheToken() throws InterruptedException {
+        JwtValidationCache cache = cache(token -> Mono.empty(), Duration.ofMinutes(5));
+        String token = token(1);
+
+        StepVerifier.create(cache.verify(token)).expectNextCount(1).verifyComplete();
+        Thread.sleep(1100);
+        StepVerifier.create(cache.verify(token)).expectNextCount(1).verifyComplete();
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void coalescesConcurrentValidations() {
+        Sinks.Empty<Void> upstream = Sinks.empty();
+        JwtValidationCache cache = cache(token -> upstream.asMono(), Duration.ofMinutes(5));
+        String token = token(3600);
+
+        StepVerifier.create(Flux.range(0, 50).flatMap(i -> cache.verify(token)))
+                .then(upstream::tryEmitEmpty)
+                .expectNextCount(50)
+                .verifyComplete();
+
+        assertEquals(1, verifications.get());
+    }
+
+    private JwtValidationCache cache(JwtVerifier verifier, Duration maxTtl) {
+        JwtVerifier counting = token -> {
+            verifications.incrementAndGet();
+            return verifier.verify(token);
+        };
+        return new JwtValidationCache(counting, new ObjectMapper(), meterRegistry, 1000, maxTtl, Duration.ofSeconds(5));
+    }
+
+    private static String token(long secondsValid) {
+        return Jwts.builder().subject("user")
+                .expiration(new Date(System.currentTimeMillis() + secondsValid * 1000))
+                .signWith(Jwts.SIG.HS256.key().build())
+                .compact();
+    }
+}
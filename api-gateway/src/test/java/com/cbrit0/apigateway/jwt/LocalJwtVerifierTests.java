@@ -0,0 +1,130 @@
+package com.cbrit0.apigateway.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.RsaPublicJwk;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalJwtVerifierTests {
+
+    private final SecretKey secretKey = Jwts.SIG.HS256.key().build();
+    private final AtomicReference<String> jwksJson = new AtomicReference<>("{\"keys\":[]}");
+    private final AtomicInteger jwksFetches = new AtomicInteger();
+
+    private final LocalJwtVerifier verifier = verifier(Duration.ZERO);
+
+    @Test
+    void acceptsValidHmacToken() {
+        String token = Jwts.builder().subject("user").expiration(inOneHour()).signWith(secretKey).compact();
+
+        StepVerifier.create(verifier.verify(token)).verifyComplete();
+        assertEquals(0, jwksFetches.get());
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = Jwts.builder().subject("user").expiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(secretKey).compact();
+
+        StepVerifier.create(verifier.verify(token)).verifyError(ExpiredJwtException.class);
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherSecret() {
+        String token = Jwts.builder().subject("user").expiration(inOneHour())
+                .signWith(Jwts.SIG.HS256.key().build()).compact();
+
+        StepVerifier.create(verifier.verify(token)).verifyError(JwtException.class);
+    }
+
+    @Test
+    void fetchesRotatedRsaKeyOnUnknownKeyId() {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        RsaPublicJwk jwk = Jwks.builder().key((RSAPublicKey) keyPair.getPublic()).idFromThumbprint().build();
+        String token = rsaToken(keyPair, jwk.getId());
+
+        StepVerifier.create(verifier.verify(token)).verifyError(JwtException.class);
+
+        jwksJson.set("{\"keys\":[" + Jwks.json(jwk) + "]}");
+        StepVerifier.create(verifier.verify(token)).verifyComplete();
+
+        int fetches = jwksFetches.get();
+        StepVerifier.create(verifier.verify(token)).verifyComplete();
+        assertEquals(fetches, jwksFetches.get());
+    }
+
+    @Test
+    void unknownKeyIdsDoNotRefetchWithinMinimumInterval() {
+        LocalJwtVerifier rateLimited = verifier(Duration.ofHours(1));
+        String token = rsaToken(Jwts.SIG.RS256.keyPair().build(), "unknown");
+
+        StepVerifier.create(rateLimited.verify(token)).verifyError(JwtException.class);
+        StepVerifier.create(rateLimited.verify(token)).verifyError(JwtException.class);
+        assertEquals(1, jwksFetches.get());
+    }
+
+    @Test
+    void rejectsRsaTokenWhenOnlyHmacAlgorithmMatchesSecret() {
+        KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+        RsaPublicJwk jwk = Jwks.builder().key((RSAPublicKey) keyPair.getPublic()).idFromThumbprint().build();
+        jwksJson.set("{\"keys\":[" + Jwks.json(jwk) + "]}");
+        String token = Jwts.builder().header().keyId(jwk.getId()).and()
+                .subject("user").expiration(inOneHour())
+                .signWith(Jwts.SIG.HS256.key().build()).compact();
+
+        StepVerifier.create(verifier.verify(token)).verifyError(JwtException.class);
+    }
+
+    @Test
+    void rejectsUnsignedToken() {
+        String token = Jwts.builder().subject("user").expiration(inOneHour()).compact();
+
+        StepVerifier.create(verifier.verify(token)).verifyError(JwtException.class);
+    }
+
+    private LocalJwtVerifier verifier(Duration minRefreshInterval) {
+        JwksKeySet jwksKeySet = new JwksKeySet(jwksServer(), "http://auth-service/.well-known/jwks.json",
+                Duration.ofMinutes(5), minRefreshInterval);
+        return new LocalJwtVerifier(jwksKeySet, Base64.getEncoder().encodeToString(secretKey.getEncoded()), Duration.ZERO);
+    }
+
+    private static String rsaToken(KeyPair keyPair, String keyId) {
+        return Jwts.builder().header().keyId(keyId).and()
+                .subject("user").expiration(inOneHour())
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256).compact();
+    }
+
+    private WebClient.Builder jwksServer() {
+        return WebClient.builder().exchangeFunction(request -> {
+            jwksFetches.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(jwksJson.get())
+                    .build());
+        });
+    }
+
+    private static Date inOneHour() {
+        return new Date(System.currentTimeMillis() + 3600000);
+    }
+}
@@ -0,0 +1,79 @@
+package com.cbrit0.apigateway.jwt;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RemoteJwtVerifierTests {
+
+    private final AtomicReference<HttpStatus> upstreamStatus = new AtomicReference<>(HttpStatus.OK);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    private final CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("auth-service",
+            CircuitBreakerConfig.custom()
+                    .slidingWindowSize(4)
+                    .minimumNumberOfCalls(4)
+                    .waitDurationInOpenState(Duration.ofMinutes(1))
+                    .ignoreExceptions(JwtException.class)
+                    .build());
+
+    private final RemoteJwtVerifier verifier = new RemoteJwtVerifier(
+            authService(),
+            new ReactiveResilience4JCircuitBreakerFactory(circuitBreakerRegistry, TimeLimiterRegistry.ofDefaults(),
+                    new Resilience4JConfigurationProperties()),
+            "http://auth-service:4005",
+            Duration.ofSeconds(1),
+            Duration.ofSeconds(2));
+
+    @Test
+    void rejectedTokensDoNotOpenTheBreaker() {
+        upstreamStatus.set(HttpStatus.UNAUTHORIZED);
+
+        for (int i = 0; i < 10; i++) {
+            StepVerifier.create(verifier.verify("token")).verifyError(JwtException.class);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void failingAuthServiceOpensTheBreakerAndFailsFastWith503() {
+        upstreamStatus.set(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(verifier.verify("token"))
+                    .verifyErrorSatisfies(e -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                            ((ResponseStatusException) e).getStatusCode()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        StepVerifier.create(verifier.verify("token"))
+                .verifyErrorSatisfies(e -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                        ((ResponseStatusException) e).getStatusCode()));
+        assertEquals(4, upstreamCalls.get());
+    }
+
+    private WebClient.Builder authService() {
+        return WebClient.builder().exchangeFunction(request -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.just(ClientResponse.create(upstreamStatus.get()).build());
+        });
+    }
+}
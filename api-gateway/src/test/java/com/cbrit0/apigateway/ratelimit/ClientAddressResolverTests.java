@@ -0,0 +1,59 @@
+package com.cbrit0.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClientAddressResolverTests {
+
+    private final ClientAddressResolver resolver = new ClientAddressResolver(List.of("10.0.0.0/8", "192.168.1.7"));
+
+    @Test
+    void ignoresForwardedHeadersFromUntrustedConnections() {
+        assertEquals("203.0.113.9", resolver.resolve(request("203.0.113.9", "198.51.100.1")));
+        assertEquals("203.0.113.9", new ClientAddressResolver(List.of()).resolve(request("203.0.113.9", "198.51.100.1")));
+    }
+
+    @Test
+    void takesTheHopAppendedByTheTrustedProxy() {
+        assertEquals("198.51.100.1", resolver.resolve(request("10.1.2.3", "198.51.100.1")));
+    }
+
+    @Test
+    void clientWrittenHopsLeftOfTheProxyEntryAreIgnored() {
+        // The client sent "1.2.3.4" itself; the load balancer appended the address it actually saw
+        assertEquals("198.51.100.1", resolver.resolve(request("10.1.2.3", "1.2.3.4, 198.51.100.1")));
+        assertEquals("198.51.100.1", resolver.resolve(request("10.1.2.3", "1.2.3.4", "198.51.100.1")));
+    }
+
+    @Test
+    void skipsChainedTrustedProxies() {
+        assertEquals("198.51.100.1", resolver.resolve(request("10.1.2.3", "198.51.100.1, 192.168.1.7, 10.9.9.9")));
+    }
+
+    @Test
+    void fallsBackToTheConnectionAddressWithoutAHeader() {
+        assertEquals("10.1.2.3", resolver.resolve(request("10.1.2.3")));
+        assertEquals("unknown", resolver.resolve(MockServerHttpRequest.get("/").build()));
+    }
+
+    @Test
+    void rejectsRangesThatAreNotIpLiterals() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientAddressResolver(List.of("lb.internal")));
+        assertThrows(IllegalArgumentException.class, () -> new ClientAddressResolver(List.of("10.0.0.0/33")));
+    }
+
+    private static MockServerHttpRequest request(String remoteAddress, String... forwardedFor) {
+        MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest.get("/")
+                .remoteAddress(new InetSocketAddress(remoteAddress, 40000));
+        if (forwardedFor.length > 0) {
+            builder.header("X-Forwarded-For", forwardedFor);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.cbrit0.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimitStoreTests {
+
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore(1000, Duration.ofMinutes(10));
+
+    @Test
+    void allowsBurstUpToCapacityThenRejectsWithRetryAfter() {
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.consume("client", 5, 2, now).allowed());
+        }
+
+        RateLimitDecision rejected = store.consume("client", 5, 2, now);
+        assertFalse(rejected.allowed());
+        assertEquals(Duration.ofMillis(500), rejected.retryAfter());
+    }
+
+    @Test
+    void refillsOverTimeWithoutExceedingCapacity() {
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            store.consume("client", 5, 2, now);
+        }
+
+        assertTrue(store.consume("client", 5, 2, now + TimeUnit.MILLISECONDS.toNanos(500)).allowed());
+        assertFalse(store.consume("client", 5, 2, now + TimeUnit.MILLISECONDS.toNanos(500)).allowed());
+        assertEquals(4, store.consume("client", 5, 2, now + TimeUnit.HOURS.toNanos(1)).remaining());
+    }
+
+    @Test
+    void keepsSeparateBucketsPerKey() {
+        long now = System.nanoTime();
+        assertTrue(store.consume("a", 1, 1, now).allowed());
+        assertFalse(store.consume("a", 1, 1, now).allowed());
+        assertTrue(store.consume("b", 1, 1, now).allowed());
+    }
+
+    @Test
+    void neverHandsOutMoreThanCapacityUnderContention() throws InterruptedException {
+        int threads = 16;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long now = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (store.consume("shared", 500, 0.001, now).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(500, allowed.get());
+    }
+}
@@ -4,10 +4,13 @@ import com.cbrit0.authservice.dto.LoginRequestDTO;
 import com.cbrit0.authservice.dto.LoginResponseDTO;
 import com.cbrit0.authservice.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -42,4 +45,12 @@ public class AuthController {
                 ? ResponseEntity.ok().build() // Token is valid
                 : ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // Unauthorized
     }
+
+    @Operation(summary = "Public keys for verifying RS256 tokens")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(authService.getPublicJwks());
+    }
 }
@@ -3,9 +3,12 @@ package com.cbrit0.authservice.service;
 import com.cbrit0.authservice.dto.LoginRequestDTO;
 import com.cbrit0.authservice.util.JwtUtil;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -13,19 +16,28 @@ public class AuthService {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final MeterRegistry meterRegistry;
 
-    public AuthService(UserService userService, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthService(UserService userService, PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                       MeterRegistry meterRegistry) {
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.meterRegistry = meterRegistry;
     }
 
+    // BCrypt dominates login time, so it is timed separately from the HTTP request
     public Optional<String> authenticate(LoginRequestDTO loginRequestDTO) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         Optional<String> token = userService
                 .findByEmail(loginRequestDTO.getEmail())
                 .filter(u -> passwordEncoder.matches(loginRequestDTO.getPassword(), u.getPassword()))
                 .map(u -> jwtUtil.generateToken(u.getEmail(), u.getRole()));
 
+        sample.stop(Timer.builder("auth.login")
+                .description("Credential checks and token issuance for login requests")
+                .tag("outcome", token.isPresent() ? "success" : "failure")
+                .register(meterRegistry));
         return  token;
     }
 
@@ -37,4 +49,8 @@ public class AuthService {
             return false;
         }
     }
+
+    public Map<String, Object> getPublicJwks() {
+        return jwtUtil.getPublicJwks();
+    }
 }
@@ -1,44 +1,115 @@
 package com.cbrit0.authservice.util;
 
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.RsaPublicJwk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
-import java.security.SignatureException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
 import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class JwtUtil {
-    private final Key secretKey;
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
 
-    public JwtUtil(@Value("${jwt.secret}") String secret) {
+    private final SecretKey secretKey;
+    private final String signingAlgorithm;
+    private final KeyPair rsaKeyPair;
+    private final RsaPublicJwk publicJwk;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.signing-algorithm:HS256}") String signingAlgorithm,
+                   @Value("${jwt.rsa.private-key:}") String rsaPrivateKey) {
         byte[] keyBytes = Base64.getDecoder().decode(secret.getBytes(StandardCharsets.UTF_8));
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        this.signingAlgorithm = signingAlgorithm;
+        this.rsaKeyPair = "RS256".equals(signingAlgorithm) || !rsaPrivateKey.isBlank()
+                ? loadRsaKeyPair(rsaPrivateKey)
+                : null;
+        this.publicJwk = rsaKeyPair == null ? null : Jwks.builder()
+                .key((RSAPublicKey) rsaKeyPair.getPublic())
+                .algorithm("RS256")
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
     }
 
     public String generateToken(String email, String role) {
-        return Jwts.builder()
+        var builder = Jwts.builder()
                 .subject(email)
                 .claim("role", role)
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + 3600000)) // Token valid for 1 hour
-                .signWith(secretKey)
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + 3600000)); // Token valid for 1 hour
+
+        if ("RS256".equals(signingAlgorithm)) {
+            return builder.header().keyId(publicJwk.getId()).and()
+                    .signWith(rsaKeyPair.getPrivate(), Jwts.SIG.RS256)
+                    .compact();
+        }
+
+        return builder.signWith(secretKey).compact();
     }
 
     public void validateToken(String token) {
         try {
-            Jwts.parser().verifyWith((SecretKey) secretKey)
+            Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+                        @Override
+                        protected Key locate(JwsHeader header) {
+                            if (header.getAlgorithm().startsWith("HS")) {
+                                return secretKey;
+                            }
+                            if (rsaKeyPair == null) {
+                                throw new JwtException("No RSA key configured");
+                            }
+                            return rsaKeyPair.getPublic();
+                        }
+                    })
                     .build()
                     .parseSignedClaims(token);
         } catch (JwtException e) {
             throw new JwtException("Invalid JWT token", e);
         }
     }
+
+    // Only the RSA public key is published; the HMAC secret has to be shared with verifiers out of band
+    public Map<String, Object> getPublicJwks() {
+        return Map.of("keys", publicJwk == null ? List.of() : List.of(publicJwk));
+    }
+
+    private static KeyPair loadRsaKeyPair(String privateKey) {
+        if (privateKey.isBlank()) {
+            log.warn("No jwt.rsa.private-key configured, generating an ephemeral RSA key pair");
+            return Jwts.SIG.RS256.keyPair().build();
+        }
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            RSAPrivateCrtKey rsaPrivateKey = (RSAPrivateCrtKey) keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(Base64.getMimeDecoder().decode(privateKey)));
+            RSAPublicKey rsaPublicKey = (RSAPublicKey) keyFactory.generatePublic(
+                    new RSAPublicKeySpec(rsaPrivateKey.getModulus(), rsaPrivateKey.getPublicExponent()));
+            return new KeyPair(rsaPublicKey, rsaPrivateKey);
+        } catch (GeneralSecurityException | ClassCastException e) {
+            throw new IllegalStateException("jwt.rsa.private-key is not a base64 PKCS#8 RSA private key", e);
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package com.cbrit0.authservice.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTests {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("a-test-secret-that-is-at-least-256-bits".getBytes());
+
+    @Test
+    void rs256TokenVerifiesAgainstThePublishedJwks() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, "RS256", privateKey());
+        String token = jwtUtil.generateToken("user@example.com", "ADMIN");
+        jwtUtil.validateToken(token);
+
+        // What a resource server does: fetch the JWKS document and pick the key named by the token's kid
+        String document = new ObjectMapper().writeValueAsString(jwtUtil.getPublicJwks());
+        JwkSet jwks = Jwks.setParser().build().parse(document);
+        Jws<Claims> jws = Jwts.parser()
+                .keyLocator(header -> jwks.getKeys().stream()
+                        .filter(jwk -> jwk.getId().equals(((ProtectedHeader) header).getKeyId()))
+                        .map(jwk -> (PublicKey) ((PublicJwk<?>) jwk).toKey())
+                        .findFirst()
+                        .orElseThrow())
+                .build()
+                .parseSignedClaims(token);
+
+        assertEquals("RS256", jws.getHeader().getAlgorithm());
+        assertEquals("user@example.com", jws.getPayload().getSubject());
+        assertEquals("ADMIN", jws.getPayload().get("role", String.class));
+    }
+
+    @Test
+    void hs256TokensStillValidate() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, "HS256", "");
+        jwtUtil.validateToken(jwtUtil.generateToken("user@example.com", "USER"));
+
+        // Tokens issued before the switch to RS256 keep working until they expire
+        JwtUtil rsaJwtUtil = new JwtUtil(SECRET, "RS256", "");
+        rsaJwtUtil.validateToken(jwtUtil.generateToken("user@example.com", "USER"));
+        assertThat(rsaJwtUtil.getPublicJwks().get("keys")).asList().hasSize(1);
+        assertThat(jwtUtil.getPublicJwks().get("keys")).asList().isEmpty();
+    }
+
+    @Test
+    void rsTokenIsRejectedWithoutAnRsaKey() {
+        String token = new JwtUtil(SECRET, "RS256", "").generateToken("user@example.com", "USER");
+
+        JwtException e = assertThrows(JwtException.class, () -> new JwtUtil(SECRET, "HS256", "").validateToken(token));
+        assertEquals("No RSA key configured", e.getCause().getMessage());
+    }
+
+    @Test
+    void rsTokenSignedByAnotherKeyIsRejected() throws Exception {
+        String token = new JwtUtil(SECRET, "RS256", privateKey()).generateToken("user@example.com", "USER");
+
+        assertThrows(JwtException.class, () -> new JwtUtil(SECRET, "RS256", privateKey()).validateToken(token));
+    }
+
+    @Test
+    void badPrivateKeyFailsAtStartup() {
+        assertThrows(IllegalStateException.class, () -> new JwtUtil(SECRET, "RS256", "not-a-key"));
+
+        new ApplicationContextRunner()
+                .withBean(JwtUtil.class)
+                .withPropertyValues("jwt.secret=" + SECRET, "jwt.signing-algorithm=RS256", "jwt.rsa.private-key=bm90LWEta2V5")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure()
+                        .hasStackTraceContaining("jwt.rsa.private-key is not a base64 PKCS#8 RSA private key"));
+    }
+
+    private static String privateKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return Base64.getEncoder().encodeToString(generator.generateKeyPair().getPrivate().getEncoded());
+    }
+}
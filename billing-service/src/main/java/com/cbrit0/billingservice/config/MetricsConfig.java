@@ -0,0 +1,19 @@
+package com.cbrit0.billingservice.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+public class MetricsConfig {
+
+    // The gRPC starter tags its meters with the gRPC service name under "service", which would hide the common
+    // service tag; it is moved aside before the common tags are applied
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public MeterFilter grpcServiceTagFilter() {
+        return MeterFilter.renameTag("grpc", "service", "grpc.service");
+    }
+}
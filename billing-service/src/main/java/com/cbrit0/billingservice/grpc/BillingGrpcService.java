@@ -1,28 +1,124 @@
 package com.cbrit0.billingservice.grpc;
 
+import billing.BillingBatchResponse;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc.BillingServiceImplBase;
+import billing.GetBillingAccountRequest;
+import com.cbrit0.billingservice.model.BillingAccount;
+import com.cbrit0.billingservice.service.BillingAccountService;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @GrpcService
 public class BillingGrpcService extends BillingServiceImplBase {
 
     private static final Logger log = LoggerFactory.getLogger(BillingGrpcService.class);
 
+    private final BillingAccountService billingAccountService;
+    private final DistributionSummary batchSize;
+    private final int maxBatchSize;
+
+    // Call counts and latency per method come from the starter's gRPC server metrics; this adds the batch shape
+    public BillingGrpcService(BillingAccountService billingAccountService, MeterRegistry meterRegistry,
+                              @Value("${billing.grpc.max-batch-size:1000}") int maxBatchSize) {
+        this.billingAccountService = billingAccountService;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = DistributionSummary.builder("billing.grpc.server.batch.size")
+                .description("Billing requests received per CreateBillingAccounts stream")
+                .register(meterRegistry);
+    }
+
     @Override
     public void createBillingAccount(BillingRequest billingRequest, StreamObserver<BillingResponse> responseObserver) {
         log.info("createBillingAccount request received: {}", billingRequest.toString());
 
-        BillingResponse response = BillingResponse.newBuilder()
-                .setAccountId("12345")
-                .setStatus("Account created successfully")
-                .build();
+        try {
+            responseObserver.onNext(toResponse(billingAccountService.createAccount(billingRequest)));
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("Error creating billing account: {}", e.getMessage(), e);
+            responseObserver.onError(Status.INTERNAL.withDescription("Error creating billing account").asRuntimeException());
+        }
+    }
+
+    @Override
+    public StreamObserver<BillingRequest> createBillingAccounts(StreamObserver<BillingBatchResponse> responseObserver) {
+        List<BillingRequest> requests = new ArrayList<>();
+
+        return new StreamObserver<>() {
+            private boolean rejected;
 
-        responseObserver.onNext(response);
-        responseObserver.onCompleted();
+            // The reply carries every account at once, so the stream is capped rather than buffered without bound
+            @Override
+            public void onNext(BillingRequest billingRequest) {
+                if (rejected) {
+                    return;
+                }
+                if (requests.size() == maxBatchSize) {
+                    rejected = true;
+                    requests.clear();
+                    log.warn("createBillingAccounts stream rejected after {} requests", maxBatchSize);
+                    responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                            .withDescription("At most " + maxBatchSize + " billing requests per stream")
+                            .asRuntimeException());
+                    return;
+                }
+                requests.add(billingRequest);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("createBillingAccounts stream aborted by client after {} requests: {}",
+                        requests.size(), t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (rejected) {
+                    return;
+                }
+                log.info("createBillingAccounts batch of {} requests received", requests.size());
+                batchSize.record(requests.size());
+                try {
+                    BillingBatchResponse.Builder batch = BillingBatchResponse.newBuilder();
+                    billingAccountService.createAccounts(requests).forEach(account -> batch.addResponses(toResponse(account)));
+                    responseObserver.onNext(batch.build());
+                    responseObserver.onCompleted();
+                } catch (Exception e) {
+                    log.error("Error creating billing accounts: {}", e.getMessage(), e);
+                    responseObserver.onError(Status.INTERNAL.withDescription("Error creating billing accounts").asRuntimeException());
+                }
+            }
+        };
+    }
+
+    @Override
+    public void getBillingAccount(GetBillingAccountRequest request, StreamObserver<BillingResponse> responseObserver) {
+        billingAccountService.findAccount(request.getPatientId()).ifPresentOrElse(
+                account -> {
+                    responseObserver.onNext(toResponse(account));
+                    responseObserver.onCompleted();
+                },
+                () -> responseObserver.onError(Status.NOT_FOUND
+                        .withDescription("No billing account for patient " + request.getPatientId())
+                        .asRuntimeException()));
+    }
+
+    private static BillingResponse toResponse(BillingAccount account) {
+        return BillingResponse.newBuilder()
+                .setAccountId(account.getAccountId())
+                .setStatus(account.getStatus())
+                .setPatientId(account.getPatientId())
+                .build();
     }
 }
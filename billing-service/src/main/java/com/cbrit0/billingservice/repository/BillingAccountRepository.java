@@ -0,0 +1,9 @@
+package com.cbrit0.billingservice.repository;
+
+import com.cbrit0.billingservice.model.BillingAccount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BillingAccountRepository extends JpaRepository<BillingAccount, String> {
+}
@@ -0,0 +1,54 @@
+package com.cbrit0.billingservice.repository;
+
+import com.cbrit0.billingservice.model.BillingAccount;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public class BillingAccountUpsertRepository {
+
+    // An existing account for the patient is left untouched; any other unique violation, such as an account id
+    // collision, still fails the insert
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO billing_account (patient_id, account_id, name, email, status, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (patient_id) DO NOTHING
+            """;
+
+    // H2, the embedded database for local runs and tests, has no conflict targets in any compatibility mode
+    private static final String MERGE_IF_ABSENT = """
+            MERGE INTO billing_account account
+            USING (VALUES (CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR),
+                           CAST(? AS VARCHAR), CAST(? AS TIMESTAMP)))
+                AS request (patient_id, account_id, name, email, status, created_at)
+            ON account.patient_id = request.patient_id
+            WHEN NOT MATCHED THEN INSERT (patient_id, account_id, name, email, status, created_at)
+                VALUES (request.patient_id, request.account_id, request.name, request.email, request.status, request.created_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertIfAbsent;
+
+    public BillingAccountUpsertRepository(JdbcTemplate jdbcTemplate, @Value("${spring.datasource.url:}") String datasourceUrl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertIfAbsent = DatabaseDriver.fromJdbcUrl(datasourceUrl) == DatabaseDriver.POSTGRESQL
+                ? INSERT_IF_ABSENT
+                : MERGE_IF_ABSENT;
+    }
+
+    public void insertIfAbsent(List<BillingAccount> accounts) {
+        jdbcTemplate.batchUpdate(insertIfAbsent, accounts, accounts.size(), (statement, account) -> {
+            statement.setString(1, account.getPatientId());
+            statement.setString(2, account.getAccountId());
+            statement.setString(3, account.getName());
+            statement.setString(4, account.getEmail());
+            statement.setString(5, account.getStatus());
+            statement.setTimestamp(6, Timestamp.from(account.getCreatedAt()));
+        });
+    }
+}
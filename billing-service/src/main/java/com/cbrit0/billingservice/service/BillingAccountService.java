@@ -0,0 +1,87 @@
+package com.cbrit0.billingservice.service;
+
+import billing.BillingRequest;
+import com.cbrit0.billingservice.model.BillingAccount;
+import com.cbrit0.billingservice.repository.BillingAccountRepository;
+import com.cbrit0.billingservice.repository.BillingAccountUpsertRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class BillingAccountService {
+    private final BillingAccountRepository billingAccountRepository;
+    private final BillingAccountUpsertRepository billingAccountUpsertRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Accounts never change once created, so cached entries cannot go stale
+    private final Cache<String, BillingAccount> accountsByPatientId;
+
+    public BillingAccountService(BillingAccountRepository billingAccountRepository,
+                                 BillingAccountUpsertRepository billingAccountUpsertRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${billing.cache.maximum-size:100000}") long cacheMaximumSize) {
+        this.billingAccountRepository = billingAccountRepository;
+        this.billingAccountUpsertRepository = billingAccountUpsertRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.accountsByPatientId = Caffeine.newBuilder().maximumSize(cacheMaximumSize).build();
+    }
+
+    public BillingAccount createAccount(BillingRequest request) {
+        return createAccounts(List.of(request)).get(0);
+    }
+
+    // Idempotent per patient id: retries and duplicates return the account created first
+    public List<BillingAccount> createAccounts(List<BillingRequest> requests) {
+        Map<String, BillingAccount> accounts = new HashMap<>();
+        Map<String, BillingAccount> missing = new LinkedHashMap<>();
+
+        for (BillingRequest request : requests) {
+            BillingAccount cached = accountsByPatientId.getIfPresent(request.getPatientId());
+            if (cached != null) {
+                accounts.put(request.getPatientId(), cached);
+            } else {
+                missing.putIfAbsent(request.getPatientId(), newAccount(request));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<BillingAccount> stored = transactionTemplate.execute(status -> {
+                billingAccountUpsertRepository.insertIfAbsent(List.copyOf(missing.values()));
+                return billingAccountRepository.findAllById(missing.keySet());
+            });
+            for (BillingAccount account : stored) {
+                accountsByPatientId.put(account.getPatientId(), account);
+                accounts.put(account.getPatientId(), account);
+            }
+        }
+
+        return requests.stream().map(request -> accounts.get(request.getPatientId())).toList();
+    }
+
+    public Optional<BillingAccount> findAccount(String patientId) {
+        return Optional.ofNullable(accountsByPatientId.get(patientId,
+                id -> billingAccountRepository.findById(id).orElse(null)));
+    }
+
+    private static BillingAccount newAccount(BillingRequest request) {
+        BillingAccount account = new BillingAccount();
+        account.setPatientId(request.getPatientId());
+        account.setAccountId(UUID.randomUUID().toString());
+        account.setName(request.getName());
+        account.setEmail(request.getEmail());
+        account.setStatus("ACTIVE");
+        account.setCreatedAt(Instant.now());
+        return account;
+    }
+}
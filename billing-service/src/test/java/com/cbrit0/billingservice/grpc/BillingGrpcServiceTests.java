@@ -0,0 +1,96 @@
+package com.cbrit0.billingservice.grpc;
+
+import billing.BillingBatchResponse;
+import billing.BillingRequest;
+import billing.BillingResponse;
+import com.cbrit0.billingservice.model.BillingAccount;
+import com.cbrit0.billingservice.service.BillingAccountService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BillingGrpcServiceTests {
+
+    private final BillingAccountService billingAccountService = mock(BillingAccountService.class);
+    private final BillingGrpcService service = new BillingGrpcService(billingAccountService, new SimpleMeterRegistry(), 3);
+    private final RecordingObserver responses = new RecordingObserver();
+
+    @Test
+    void streamUpToTheLimitIsCreatedInOneBatch() {
+        when(billingAccountService.createAccounts(anyList())).thenAnswer(invocation -> {
+            List<BillingRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(BillingGrpcServiceTests::account).toList();
+        });
+
+        StreamObserver<BillingRequest> requests = service.createBillingAccounts(responses);
+        for (int i = 0; i < 3; i++) {
+            requests.onNext(request("patient-" + i));
+        }
+        requests.onCompleted();
+
+        assertNull(responses.error);
+        assertEquals(1, responses.values.size());
+        assertEquals(List.of("patient-0", "patient-1", "patient-2"), responses.values.getFirst().getResponsesList().stream()
+                .map(BillingResponse::getPatientId).toList());
+        assertEquals(1, responses.completions);
+    }
+
+    @Test
+    void streamPastTheLimitIsRejectedWithoutCreatingAccounts() {
+        StreamObserver<BillingRequest> requests = service.createBillingAccounts(responses);
+        for (int i = 0; i < 5; i++) {
+            requests.onNext(request("patient-" + i));
+        }
+        requests.onCompleted();
+
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(responses.error).getCode());
+        assertEquals(List.of(), responses.values);
+        assertEquals(0, responses.completions);
+        verify(billingAccountService, never()).createAccounts(anyList());
+    }
+
+    private static BillingRequest request(String patientId) {
+        return BillingRequest.newBuilder().setPatientId(patientId).setName("Jane Doe").setEmail(patientId + "@example.com").build();
+    }
+
+    private static BillingAccount account(BillingRequest request) {
+        BillingAccount account = new BillingAccount();
+        account.setPatientId(request.getPatientId());
+        account.setAccountId("account-" + request.getPatientId());
+        account.setStatus("ACTIVE");
+        return account;
+    }
+
+    private static class RecordingObserver implements StreamObserver<BillingBatchResponse> {
+        private final List<BillingBatchResponse> values = new ArrayList<>();
+        private Throwable error;
+        private int completions;
+
+        @Override
+        public void onNext(BillingBatchResponse value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+            completions++;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.cbrit0.billingservice.service;
+
+import billing.BillingRequest;
+import com.cbrit0.billingservice.model.BillingAccount;
+import com.cbrit0.billingservice.repository.BillingAccountRepository;
+import com.cbrit0.billingservice.repository.BillingAccountUpsertRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs on the default configuration, Boot's embedded H2 without PostgreSQL compatibility mode
+@SpringBootTest(properties = "grpc.server.port=-1")
+class BillingAccountServiceTests {
+
+    @Autowired
+    private BillingAccountService billingAccountService;
+
+    @Autowired
+    private BillingAccountRepository billingAccountRepository;
+
+    @Autowired
+    private BillingAccountUpsertRepository billingAccountUpsertRepository;
+
+    @Test
+    void createAccountIsIdempotentPerPatient() {
+        BillingRequest request = request(UUID.randomUUID().toString());
+
+        BillingAccount first = billingAccountService.createAccount(request);
+        BillingAccount second = billingAccountService.createAccount(request);
+
+        assertEquals(first.getAccountId(), second.getAccountId());
+        assertEquals(1, billingAccountRepository.findAllById(List.of(request.getPatientId())).size());
+    }
+
+    @Test
+    void createAccountsReusesExistingAndDeduplicatesWithinBatch() {
+        String existingPatientId = UUID.randomUUID().toString();
+        String newPatientId = UUID.randomUUID().toString();
+        BillingAccount existing = billingAccountService.createAccount(request(existingPatientId));
+
+        List<BillingAccount> accounts = billingAccountService.createAccounts(List.of(
+                request(existingPatientId), request(newPatientId), request(newPatientId)));
+
+        assertEquals(3, accounts.size());
+        assertEquals(existing.getAccountId(), accounts.get(0).getAccountId());
+        assertEquals(accounts.get(1).getAccountId(), accounts.get(2).getAccountId());
+        assertEquals(accounts.get(1).getAccountId(),
+                billingAccountRepository.findById(newPatientId).orElseThrow().getAccountId());
+    }
+
+    @Test
+    void insertIfAbsentOnlySkipsExistingPatients() {
+        BillingAccount existing = billingAccountService.createAccount(request(UUID.randomUUID().toString()));
+
+        // Same account id for a different patient is a real conflict, not an existing account
+        BillingAccount clash = account(UUID.randomUUID().toString(), existing.getAccountId());
+        assertThrows(DuplicateKeyException.class, () -> billingAccountUpsertRepository.insertIfAbsent(List.of(clash)));
+        assertTrue(billingAccountRepository.findById(clash.getPatientId()).isEmpty());
+
+        billingAccountUpsertRepository.insertIfAbsent(List.of(account(existing.getPatientId(), UUID.randomUUID().toString())));
+        assertEquals(existing.getAccountId(),
+                billingAccountRepository.findById(existing.getPatientId()).orElseThrow().getAccountId());
+    }
+
+    @Test
+    void findAccountReturnsEmptyForUnknownPatient() {
+        assertTrue(billingAccountService.findAccount(UUID.randomUUID().toString()).isEmpty());
+    }
+
+    private static BillingRequest request(String patientId) {
+        return BillingRequest.newBuilder()
+                .setPatientId(patientId)
+                .setName("Jane Doe")
+                .setEmail("jane.doe@example.com")
+                .build();
+    }
+
+    private static BillingAccount account(String patientId, String accountId) {
+        BillingAccount account = new BillingAccount();
+        account.setPatientId(patientId);
+        account.setAccountId(accountId);
+        account.setName("Jane Doe");
+        account.setEmail("jane.doe@example.com");
+        account.setStatus("ACTIVE");
+        account.setCreatedAt(Instant.now());
+        return account;
+    }
+}
@@ -29,9 +29,11 @@ public class LocalStack extends Stack {
 
         DatabaseInstance authServiceDb = createDatabaseInstance("AuthServiceDb", "auth-service-db");
         DatabaseInstance patientServiceDb = createDatabaseInstance("PatientServiceDb", "patient-service-db");
+        DatabaseInstance billingServiceDb = createDatabaseInstance("BillingServiceDb", "billing-service-db");
 
         CfnHealthCheck authDbHealthCheck = createDbHealthCheck(authServiceDb, "AuthServiceDbHealthCheck");
         CfnHealthCheck patientDbHealthCheck = createDbHealthCheck(patientServiceDb, "PatientServiceDbHealthCheck");
+        CfnHealthCheck billingDbHealthCheck = createDbHealthCheck(billingServiceDb, "BillingServiceDbHealthCheck");
 
         CfnCluster kafkaCluster = createKafkaCluster();
 
@@ -52,10 +54,13 @@ public class LocalStack extends Stack {
                 "BillingService",
                 "billing-service",
                 List.of(4001, 9001),
-                null,
+                billingServiceDb,
                 null
         );
 
+        billingService.getNode().addDependency(billingServiceDb);
+        billingService.getNode().addDependency(billingDbHealthCheck);
+
         FargateService analyticsService = createFargateService(
                 "AnalyticsService",
                 "analytics-service",
@@ -129,7 +134,7 @@ public class LocalStack extends Stack {
         }
 
         if (db != null) {
-            envVars.put("SPRING_DATASOURCE_URL", "jdbc:postgresql://%s:%s/%s-db"
+            envVars.put("SPRING_DATASOURCE_URL", "jdbc:postgresql://%s:%s/%s-db?reWriteBatchedInserts=true"
                     .formatted(db.getDbInstanceEndpointAddress(), db.getDbInstanceEndpointPort(), imageName));
             envVars.put("SPRING_DATASOURCE_USERNAME", "admin");
             envVars.put("SPRING_DATASOURCE_PASSWORD", db.getSecret().secretValueFromJson("password").toString());
@@ -159,7 +164,8 @@ public class LocalStack extends Stack {
                 .image(ContainerImage.fromRegistry("api-gateway"))
                 .environment(Map.of(
                         "SPRING_PROFILES_ACTIVE", "prod",
-                        "AUTH_SERVICE_URL", "http://host.docker.internal:4005"
+                        "AUTH_SERVICE_URL", "http://host.docker.internal:4005",
+                        "JWT_SECRET", "YmiltQoQDYgUca9zvx8syPM9IapuZnjq68OzVSOuzVVCpCBuHXiyKtsSRsBUvS6H"
                 ))
                 .portMappings(Stream.of(4004)
                         .map(port -> PortMapping.builder()
@@ -0,0 +1,23 @@
+public enum Endpoint {
+    LOGIN("login", "POST /auth/login"),
+    LIST("list", "GET /api/patients"),
+    CREATE("create", "POST /api/patients"),
+    UPDATE("update", "PUT /api/patients/{id}"),
+    DELETE("delete", "DELETE /api/patients/{id}");
+
+    private final String key;
+    private final String route;
+
+    Endpoint(String key, String route) {
+        this.key = key;
+        this.route = route;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String route() {
+        return route;
+    }
+}
@@ -0,0 +1,48 @@
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EndpointStats {
+
+    // Nanosecond values, three significant digits, grown as needed
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final AtomicLong errors = new AtomicLong();
+
+    public void record(long latencyNanos, boolean success) {
+        latencies.recordValue(latencyNanos);
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    public void reset() {
+        latencies.reset();
+        errors.set(0);
+    }
+
+    public long count() {
+        return latencies.getTotalCount();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    public double errorRate() {
+        return count() == 0 ? 0 : (double) errors() / count();
+    }
+
+    public double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double maxMillis() {
+        return latencies.getMaxValue() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public Histogram histogram() {
+        return latencies;
+    }
+}
@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+public class LoadTestConfig {
+
+    private final Properties properties = new Properties();
+
+    public LoadTestConfig() {
+        try (InputStream defaults = LoadTestConfig.class.getResourceAsStream("/load-test.properties")) {
+            properties.load(defaults);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // -D overrides on the command line win over the defaults file
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith("loadtest."))
+                .forEach(key -> properties.setProperty(key, System.getProperty(key)));
+    }
+
+    public String baseUrl() {
+        return get("loadtest.base-url");
+    }
+
+    public List<String[]> users() {
+        return Arrays.stream(get("loadtest.users").split(","))
+                .map(String::strip)
+                .map(user -> user.split(":", 2))
+                .toList();
+    }
+
+    public int rps() {
+        return Integer.parseInt(get("loadtest.rps"));
+    }
+
+    public Duration warmup() {
+        return duration("loadtest.warmup");
+    }
+
+    public Duration duration() {
+        return duration("loadtest.duration");
+    }
+
+    public Duration requestTimeout() {
+        return duration("loadtest.request-timeout");
+    }
+
+    public Map<Endpoint, Integer> mix() {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            mix.put(endpoint, Integer.parseInt(get("loadtest.mix." + endpoint.key())));
+        }
+        return mix;
+    }
+
+    public long sloMillis(Endpoint endpoint, String percentile) {
+        return Long.parseLong(get("loadtest.slo." + endpoint.key() + "." + percentile));
+    }
+
+    public int billingSample() {
+        return Integer.parseInt(get("loadtest.billing.sample"));
+    }
+
+    public Duration billingTimeout() {
+        return duration("loadtest.billing.timeout");
+    }
+
+    public double maxErrorRate() {
+        return Double.parseDouble(get("loadtest.slo.max-error-rate"));
+    }
+
+    private String get(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing load test setting " + key);
+        }
+        return value.strip();
+    }
+
+    // Accepts 500ms, 15s and 2m
+    private Duration duration(String key) {
+        String value = get(key);
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalStateException("Unsupported duration for " + key + ": " + value);
+        };
+    }
+}
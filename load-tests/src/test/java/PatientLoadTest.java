@@ -0,0 +1,192 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drives a mixed front-desk workload through the gateway at a fixed request rate and checks per-endpoint latency SLOs.
+// Requests are scheduled open-loop: latency is measured from when a request was due, not from when it was sent,
+// so a stalled service shows up in the percentiles instead of silently lowering the rate.
+// Run against a running stack with: mvn test [-Dloadtest.rps=80] [-Dloadtest.duration=5m]
+public class PatientLoadTest {
+
+    private static final String[] PERCENTILES = {"p50", "p99", "p999"};
+    private static final double[] PERCENTILE_VALUES = {50.0, 99.0, 99.9};
+    private static final Path REPORT_DIR = Path.of("target", "load-test");
+
+    private static LoadTestConfig config;
+    private static HttpClient httpClient;
+    private static PatientWorkload workload;
+
+    @BeforeAll
+    static void setUp() throws IOException, InterruptedException {
+        config = new LoadTestConfig();
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(config.requestTimeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        workload = new PatientWorkload(httpClient, config.baseUrl(), config.requestTimeout(), config.users());
+        workload.loginAll();
+    }
+
+    @Test
+    public void shouldMeetLatencySlosUnderMixedLoad() throws IOException {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+        Endpoint[] mix = weightedMix(config.mix());
+
+        run(config.warmup(), mix, stats);
+        stats.values().forEach(EndpointStats::reset);
+        run(config.duration(), mix, stats);
+
+        List<String> breaches = report(stats);
+        writeHistograms(stats);
+        breaches.addAll(checkBillingAccounts());
+        assertTrue(breaches.isEmpty(), "SLOs breached:\n  " + String.join("\n  ", breaches));
+    }
+
+    private static void run(Duration duration, Endpoint[] mix, Map<Endpoint, EndpointStats> stats) {
+        long period = TimeUnit.SECONDS.toNanos(1) / config.rps();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * period;
+                if (intendedStart >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Endpoint chosen = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+                executor.execute(() -> {
+                    Endpoint endpoint = workload.resolve(chosen);
+                    boolean success;
+                    try {
+                        success = workload.execute(endpoint);
+                    } catch (IOException e) {
+                        success = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    stats.get(endpoint).record(System.nanoTime() - intendedStart, success);
+                });
+            }
+        }
+    }
+
+    // One slot per unit of weight, so picking a random slot follows the configured mix
+    private static Endpoint[] weightedMix(Map<Endpoint, Integer> weights) {
+        List<Endpoint> slots = new ArrayList<>();
+        weights.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(endpoint);
+            }
+        });
+        if (slots.isEmpty()) {
+            throw new IllegalStateException("The load test mix has no weight on any endpoint");
+        }
+        return slots.toArray(Endpoint[]::new);
+    }
+
+    private static List<String> report(Map<Endpoint, EndpointStats> stats) {
+        List<String> breaches = new ArrayList<>();
+        System.out.printf("%n%d rps for %ds against %s%n", config.rps(), config.duration().toSeconds(), config.baseUrl());
+        System.out.printf("%-26s %8s %7s %10s %10s %10s %10s  %s%n",
+                "endpoint", "count", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "SLO");
+        stats.forEach((endpoint, endpointStats) -> {
+            if (endpointStats.count() == 0) {
+                System.out.printf("%-26s %8d%n", endpoint.route(), 0);
+                return;
+            }
+            List<String> endpointBreaches = new ArrayList<>();
+            double[] measured = new double[PERCENTILES.length];
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                measured[i] = endpointStats.percentileMillis(PERCENTILE_VALUES[i]);
+                long target = config.sloMillis(endpoint, PERCENTILES[i]);
+                if (measured[i] > target) {
+                    endpointBreaches.add(String.format("%s %s %.1f ms > %d ms", endpoint.route(), PERCENTILES[i], measured[i], target));
+                }
+            }
+            if (endpointStats.errorRate() > config.maxErrorRate()) {
+                endpointBreaches.add(String.format("%s error rate %.2f%% > %.2f%%",
+                        endpoint.route(), endpointStats.errorRate() * 100, config.maxErrorRate() * 100));
+            }
+            System.out.printf("%-26s %8d %7d %10.1f %10.1f %10.1f %10.1f  %s%n",
+                    endpoint.route(), endpointStats.count(), endpointStats.errors(),
+                    measured[0], measured[1], measured[2], endpointStats.maxMillis(),
+                    endpointBreaches.isEmpty() ? "ok" : "BREACHED");
+            breaches.addAll(endpointBreaches);
+        });
+        return breaches;
+    }
+
+    // A failing billing-service doesn't show in the request latencies: patients are created either way and the
+    // account is created in the background, so the status patient-service recorded is checked directly
+    private static List<String> checkBillingAccounts() {
+        Map<String, String> statuses = new HashMap<>();
+        workload.createdPatients(config.billingSample()).forEach(id -> statuses.put(id, null));
+        long deadline = System.nanoTime() + config.billingTimeout().toNanos();
+        try {
+            while (true) {
+                for (Map.Entry<String, String> entry : statuses.entrySet()) {
+                    if (!"ACTIVE".equals(entry.getValue())) {
+                        entry.setValue(workload.billingStatus(entry.getKey()));
+                    }
+                }
+                if (statuses.values().stream().allMatch("ACTIVE"::equals) || System.nanoTime() > deadline) {
+                    break;
+                }
+                Thread.sleep(500);
+            }
+        } catch (IOException e) {
+            return List.of("billing status lookup failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of("interrupted while checking billing accounts");
+        }
+
+        long active = statuses.values().stream().filter("ACTIVE"::equals).count();
+        System.out.printf("%nbilling accounts: %d of %d sampled patients ACTIVE%n", active, statuses.size());
+        if (active == statuses.size()) {
+            return List.of();
+        }
+        List<String> breaches = new ArrayList<>();
+        statuses.forEach((id, status) -> {
+            if (!"ACTIVE".equals(status)) {
+                breaches.add("patient " + id + " billing status " + status + " after " + config.billingTimeout().toSeconds() + "s");
+            }
+        });
+        return breaches;
+    }
+
+    // Full percentile distributions in the HdrHistogram text format, which plots directly in HdrHistogram's viewer
+    private static void writeHistograms(Map<Endpoint, EndpointStats> stats) throws IOException {
+        Files.createDirectories(REPORT_DIR);
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(REPORT_DIR.resolve(entry.getKey().key() + ".hgrm")))) {
+                entry.getValue().histogram().outputPercentileDistribution(out, (double) TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// The requests a front-desk user makes through the gateway. Patients created by the run are the ones later updated
+// and deleted, so the workload never touches pre-existing data.
+public class PatientWorkload {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final List<String[]> users;
+    private final AtomicReferenceArray<String> tokens;
+    private final AtomicInteger nextUser = new AtomicInteger();
+    private final ConcurrentLinkedDeque<String> createdPatients = new ConcurrentLinkedDeque<>();
+
+    public PatientWorkload(HttpClient httpClient, String baseUrl, Duration requestTimeout, List<String[]> users) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.users = users;
+        this.tokens = new AtomicReferenceArray<>(users.size());
+    }
+
+    public void loginAll() throws IOException, InterruptedException {
+        for (int user = 0; user < users.size(); user++) {
+            if (!login(user)) {
+                throw new IllegalStateException("Login failed for " + users.get(user)[0] + " at " + baseUrl);
+            }
+        }
+    }
+
+    // Endpoints that need an existing patient fall back to creating one; the caller records what actually ran
+    public Endpoint resolve(Endpoint endpoint) {
+        if ((endpoint == Endpoint.UPDATE || endpoint == Endpoint.DELETE) && createdPatients.isEmpty()) {
+            return Endpoint.CREATE;
+        }
+        return endpoint;
+    }
+
+    public boolean execute(Endpoint endpoint) throws IOException, InterruptedException {
+        int user = Math.floorMod(nextUser.getAndIncrement(), users.size());
+        return switch (endpoint) {
+            case LOGIN -> login(user);
+            case LIST -> list(user);
+            case CREATE -> create(user);
+            case UPDATE -> update(user);
+            case DELETE -> delete(user);
+        };
+    }
+
+    // Patients created by the run and not deleted since, newest first
+    public List<String> createdPatients(int limit) {
+        List<String> ids = new ArrayList<>();
+        Iterator<String> newestFirst = createdPatients.descendingIterator();
+        while (ids.size() < limit && newestFirst.hasNext()) {
+            ids.add(newestFirst.next());
+        }
+        return ids;
+    }
+
+    // The billing account status patient-service recorded for a patient, or null if the lookup failed
+    public String billingStatus(String patientId) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                authorized("/api/patients/" + patientId + "/billing", 0).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        return objectMapper.readTree(response.body()).path("status").asText(null);
+    }
+
+    private boolean login(int user) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("email", users.get(user)[0], "password", users.get(user)[1]));
+        HttpResponse<String> response = httpClient.send(
+                request("/auth/login").header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        tokens.set(user, objectMapper.readTree(response.body()).get("token").asText());
+        return true;
+    }
+
+    private boolean list(int user) throws IOException, InterruptedException {
+        HttpResponse<Void> response = httpClient.send(
+                authorized("/api/patients?size=20", user).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        return response.statusCode() == 200;
+    }
+
+    private boolean create(int user) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                authorized("/api/patients", user).header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(patientJson(true))).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            return false;
+        }
+        JsonNode created = objectMapper.readTree(response.body());
+        createdPatients.addLast(created.get("id").asText());
+        return true;
+    }
+
+    private boolean update(int user) throws IOException, InterruptedException {
+        String id = createdPatients.pollFirst();
+        if (id == null) {
+            return create(user);
+        }
+        try {
+            HttpResponse<Void> response = httpClient.send(
+                    authorized("/api/patients/" + id, user).header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(patientJson(false))).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } finally {
+            createdPatients.addLast(id);
+        }
+    }
+
+    private boolean delete(int user) throws IOException, InterruptedException {
+        String id = createdPatients.pollFirst();
+        if (id == null) {
+            return create(user);
+        }
+        HttpResponse<Void> response = httpClient.send(
+                authorized("/api/patients/" + id, user).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+        return response.statusCode() == 204;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout);
+    }
+
+    private HttpRequest.Builder authorized(String path, int user) {
+        return request(path).header("Authorization", "Bearer " + tokens.get(user));
+    }
+
+    private static String patientJson(boolean withRegistrationDate) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Map<String, String> patient = new HashMap<>(Map.of(
+                "name", "Load Test " + suffix,
+                "email", "load-" + UUID.randomUUID() + "@example.com",
+                "address", random.nextInt(1, 999) + " Load Test Street, Springfield",
+                "birthDate", LocalDate.of(1940, 1, 1).plusDays(random.nextInt(25_000)).toString()));
+        if (withRegistrationDate) {
+            patient.put("registrationDate", LocalDate.now().toString());
+        }
+        return objectMapper.writeValueAsString(patient);
+    }
+}
@@ -0,0 +1,70 @@
+package com.cbrit0.patientservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Prints each benchmark's time and allocation per operation from a baseline JMH JSON result next to a new one.
+// A time change is flagged when the two scores are further apart than their combined error margins.
+public class BenchmarkComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <result.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        System.out.printf("%-52s %17s %17s %9s %10s %10s%n",
+                "benchmark", "baseline", "current", "change", "base B/op", "curr B/op");
+        current.forEach((name, result) -> {
+            JsonNode before = baseline.get(name);
+            double score = result.at("/primaryMetric/score").asDouble();
+            String unit = result.at("/primaryMetric/scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-52s %17s %11.1f %-5s %9s %10s %10.0f%n",
+                        name, "-", score, unit, "new", "-", allocation(result));
+                return;
+            }
+            double baseScore = before.at("/primaryMetric/score").asDouble();
+            double margin = error(before) + error(result);
+            String flag = Math.abs(score - baseScore) > margin ? (score > baseScore ? "  slower" : "  faster") : "";
+            // Allocation per operation is deterministic, so any change of a word or more is real
+            double allocated = allocation(result) - allocation(before);
+            if (Math.abs(allocated) >= 8) {
+                flag += allocated > 0 ? "  allocates more" : "  allocates less";
+            }
+            System.out.printf("%-52s %11.1f %-5s %11.1f %-5s %+8.1f%% %10.0f %10.0f%s%n",
+                    name, baseScore, unit, score, unit, (score - baseScore) / baseScore * 100,
+                    allocation(before), allocation(result), flag);
+        });
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String name = result.get("benchmark").asText().replace("com.cbrit0.patientservice.benchmark.", "");
+            results.put(name, result);
+        }
+        return results;
+    }
+
+    private static double error(JsonNode result) {
+        double error = result.at("/primaryMetric/scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    // Older JMH versions prefix secondary metric names with a middle dot
+    private static double allocation(JsonNode result) {
+        JsonNode metrics = result.get("secondaryMetrics");
+        JsonNode allocation = metrics.has(ALLOCATION) ? metrics.get(ALLOCATION) : metrics.get("·" + ALLOCATION);
+        return allocation == null ? Double.NaN : allocation.get("score").asDouble();
+    }
+}
@@ -0,0 +1,35 @@
+package com.cbrit0.patientservice.benchmark;
+
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.model.Patient;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static Patient patient() {
+        Patient patient = new Patient();
+        patient.setId(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"));
+        patient.setName("Jonathan Smith");
+        patient.setEmail("jonathan.smith@example.com");
+        patient.setAddress("12 Baker Street, London");
+        patient.setBirthDate(LocalDate.of(1985, 6, 15));
+        patient.setRegistrationDate(LocalDate.of(2024, 10, 1));
+        patient.setVersion(3L);
+        return patient;
+    }
+
+    static PatientRequestDTO request() {
+        PatientRequestDTO request = new PatientRequestDTO();
+        request.setName("Jonathan Smith");
+        request.setEmail("jonathan.smith@example.com");
+        request.setAddress("12 Baker Street, London");
+        request.setBirthDate("1985-06-15");
+        request.setRegistrationDate("2024-10-01");
+        return request;
+    }
+}
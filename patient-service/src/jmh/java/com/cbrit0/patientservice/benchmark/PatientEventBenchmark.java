@@ -0,0 +1,40 @@
+package com.cbrit0.patientservice.benchmark;
+
+import com.cbrit0.patientservice.mapper.PatientMapper;
+import com.cbrit0.patientservice.model.Patient;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import patient.event.PatientEvent;
+
+import java.util.concurrent.TimeUnit;
+
+// Building and encoding the outbox payload on every write, and decoding it in the event listeners
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientEventBenchmark {
+
+    private final Patient patient = BenchmarkFixtures.patient();
+    private final byte[] encoded = PatientMapper.toEvent(patient, "PATIENT_UPDATED").toByteArray();
+
+    @Benchmark
+    public byte[] encode() {
+        return PatientMapper.toEvent(patient, "PATIENT_UPDATED").toByteArray();
+    }
+
+    @Benchmark
+    public PatientEvent decode() throws InvalidProtocolBufferException {
+        return PatientEvent.parseFrom(encoded);
+    }
+}
@@ -0,0 +1,61 @@
+package com.cbrit0.patientservice.benchmark;
+
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.dto.PatientResponseDTO;
+import com.cbrit0.patientservice.mapper.PatientMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Request and response bodies as Spring MVC's message converters handle them
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientJsonBenchmark {
+
+    // Same defaults Spring Boot applies to the application's ObjectMapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectWriter responseWriter = objectMapper.writerFor(PatientResponseDTO.class);
+    private final ObjectReader requestReader = objectMapper.readerFor(PatientRequestDTO.class);
+    private final PatientResponseDTO response = PatientMapper.toDTO(BenchmarkFixtures.patient());
+    private final byte[] requestJson;
+
+    public PatientJsonBenchmark() {
+        try {
+            requestJson = objectMapper.writeValueAsBytes(BenchmarkFixtures.request());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseWithWriter() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public PatientRequestDTO deserializeRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+}
@@ -0,0 +1,46 @@
+package com.cbrit0.patientservice.benchmark;
+
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.dto.PatientResponseDTO;
+import com.cbrit0.patientservice.mapper.PatientMapper;
+import com.cbrit0.patientservice.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Entity <-> DTO mapping done on every patient request; toModel includes parsing both dates
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientMapperBenchmark {
+
+    private final Patient patient = BenchmarkFixtures.patient();
+    private final PatientRequestDTO request = BenchmarkFixtures.request();
+
+    @Benchmark
+    public PatientResponseDTO toDTO() {
+        return PatientMapper.toDTO(patient);
+    }
+
+    @Benchmark
+    public Patient toModel() {
+        return PatientMapper.toModel(request);
+    }
+
+    @Benchmark
+    public LocalDate parseBirthDate() {
+        return LocalDate.parse(request.getBirthDate());
+    }
+}
@@ -0,0 +1,33 @@
+package com.cbrit0.patientservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class BillingClientConfig {
+
+    // Billing responses are persisted here so gRPC transport threads never block on JDBC
+    @Bean
+    public Executor billingCallbackExecutor(@Value("${billing.callback.pool-size:8}") int poolSize,
+                                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            // No concurrency limit here: it would block the submitting transport thread, and
+            // billing.service.max-in-flight already bounds how many callbacks can be outstanding
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("billing-callback-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("billing-callback-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.initialize();
+        return executor;
+    }
+}
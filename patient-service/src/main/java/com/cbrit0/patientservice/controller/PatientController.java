@@ -1,17 +1,31 @@
 package com.cbrit0.patientservice.controller;
 
+import com.cbrit0.patientservice.dto.BillingStatusResponseDTO;
+import com.cbrit0.patientservice.dto.BulkImportResponseDTO;
+import com.cbrit0.patientservice.dto.PatientFilterDTO;
+import com.cbrit0.patientservice.dto.PatientPageResponseDTO;
 import com.cbrit0.patientservice.dto.PatientRequestDTO;
 import com.cbrit0.patientservice.dto.PatientResponseDTO;
+import com.cbrit0.patientservice.dto.PatientSearchRequestDTO;
+import com.cbrit0.patientservice.dto.PatientSearchResponseDTO;
 import com.cbrit0.patientservice.dto.validators.CreatePatientValidationGroup;
+import com.cbrit0.patientservice.mapper.PatientCsvReader;
+import com.cbrit0.patientservice.mapper.PatientJsonArrayReader;
+import com.cbrit0.patientservice.service.BillingAccountService;
+import com.cbrit0.patientservice.service.PatientBulkImportService;
+import com.cbrit0.patientservice.service.PatientSearchService;
 import com.cbrit0.patientservice.service.PatientService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.groups.Default;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.InputStream;
 import java.util.UUID;
 
 @RestController
@@ -19,18 +33,42 @@ import java.util.UUID;
 @Tag(name = "Patient Management", description = "Operations related to patient management")
 public class PatientController {
     private final PatientService patientService;
+    private final PatientBulkImportService patientBulkImportService;
+    private final PatientSearchService patientSearchService;
+    private final BillingAccountService billingAccountService;
+    private final ObjectMapper objectMapper;
 
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, PatientBulkImportService patientBulkImportService,
+                             PatientSearchService patientSearchService,
+                             BillingAccountService billingAccountService, ObjectMapper objectMapper) {
         this.patientService = patientService;
+        this.patientBulkImportService = patientBulkImportService;
+        this.patientSearchService = patientSearchService;
+        this.billingAccountService = billingAccountService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    @Operation(summary = "Get all patients", description = "Retrieve a list of all registered patients")
-    public ResponseEntity<List<PatientResponseDTO>> getAllPatients() {
-        List<PatientResponseDTO> patients = patientService.getAllPatients();
+    @Operation(summary = "Get patients", description = "Retrieve a page of patients, optionally filtered by name prefix, email and birth date range")
+    public ResponseEntity<PatientPageResponseDTO> getPatients(@Validated PatientFilterDTO filter) {
+        PatientPageResponseDTO patients = patientService.getPatients(filter);
         return ResponseEntity.ok().body(patients);
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search patients", description = "Ranked prefix and fuzzy search over patient name, email and address")
+    public ResponseEntity<PatientSearchResponseDTO> searchPatients(@Validated PatientSearchRequestDTO request) {
+        PatientSearchResponseDTO patients = patientSearchService.search(request);
+        return ResponseEntity.ok().body(patients);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all patients", description = "Stream every patient as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportPatients() {
+        StreamingResponseBody body = patientService::exportPatients;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PostMapping
     @Operation(summary = "Create a new patient", description = "Register a new patient in the system")
     public ResponseEntity<PatientResponseDTO> createPatient(
@@ -40,6 +78,26 @@ public class PatientController {
         return ResponseEntity.status(201).body(createdPatient);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Bulk import patients from JSON", description = "Import a JSON array of patients and report the result of every row")
+    public ResponseEntity<BulkImportResponseDTO> bulkImportJson(InputStream body) {
+        BulkImportResponseDTO result = patientBulkImportService.importPatients(new PatientJsonArrayReader(objectMapper, body));
+        return ResponseEntity.ok().body(result);
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @Operation(summary = "Bulk import patients from CSV", description = "Import CSV rows with a name,email,address,birthDate,registrationDate header and report the result of every row")
+    public ResponseEntity<BulkImportResponseDTO> bulkImportCsv(InputStream body) {
+        BulkImportResponseDTO result = patientBulkImportService.importPatients(new PatientCsvReader(body));
+        return ResponseEntity.ok().body(result);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a patient", description = "Retrieve a single patient by id")
+    public ResponseEntity<PatientResponseDTO> getPatient(@PathVariable UUID id) {
+        return ResponseEntity.ok().body(patientService.getPatient(id));
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update an existing patient", description = "Update the details of an existing patient")
     public ResponseEntity<PatientResponseDTO> updatePatient(
@@ -49,6 +107,13 @@ public class PatientController {
         return ResponseEntity.ok().body(updatedPatient);
     }
 
+    @GetMapping("/{id}/billing")
+    @Operation(summary = "Get billing status", description = "Retrieve the billing account status of a patient")
+    public ResponseEntity<BillingStatusResponseDTO> getBillingStatus(@PathVariable UUID id) {
+        BillingStatusResponseDTO billingStatus = billingAccountService.getBillingStatus(id);
+        return ResponseEntity.ok().body(billingStatus);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a patient", description = "Remove a patient from the system")
     public ResponseEntity<Void> deletePatient(@PathVariable UUID id) {
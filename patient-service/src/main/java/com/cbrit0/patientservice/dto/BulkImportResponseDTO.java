@@ -0,0 +1,42 @@
+package com.cbrit0.patientservice.dto;
+
+import java.util.List;
+
+public class BulkImportResponseDTO {
+    private int total;
+    private int created;
+    private int rejected;
+    private List<BulkImportRowResultDTO> results;
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<BulkImportRowResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BulkImportRowResultDTO> results) {
+        this.results = results;
+    }
+}
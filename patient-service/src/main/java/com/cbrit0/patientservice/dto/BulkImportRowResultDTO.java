@@ -0,0 +1,66 @@
+package com.cbrit0.patientservice.dto;
+
+import java.util.Map;
+
+public class BulkImportRowResultDTO {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        DUPLICATE,
+        FAILED
+    }
+
+    private int row;
+    private Status status;
+    private String id;
+    private Map<String, String> errors;
+
+    public static BulkImportRowResultDTO created(int row, String id) {
+        BulkImportRowResultDTO result = new BulkImportRowResultDTO();
+        result.setRow(row);
+        result.setStatus(Status.CREATED);
+        result.setId(id);
+        return result;
+    }
+
+    public static BulkImportRowResultDTO rejected(int row, Status status, Map<String, String> errors) {
+        BulkImportRowResultDTO result = new BulkImportRowResultDTO();
+        result.setRow(row);
+        result.setStatus(status);
+        result.setErrors(errors);
+        return result;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+}
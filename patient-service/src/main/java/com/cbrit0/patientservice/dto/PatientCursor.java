@@ -0,0 +1,53 @@
+package com.cbrit0.patientservice.dto;
+
+import com.cbrit0.patientservice.exception.InvalidCursorException;
+import com.cbrit0.patientservice.model.Patient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// Opaque keyset position: the (registrationDate, id) of the last patient of a page
+public final class PatientCursor {
+    private final LocalDate registrationDate;
+    private final UUID id;
+
+    public PatientCursor(LocalDate registrationDate, UUID id) {
+        this.registrationDate = registrationDate;
+        this.id = id;
+    }
+
+    public static PatientCursor of(Patient patient) {
+        return new PatientCursor(patient.getRegistrationDate(), patient.getId());
+    }
+
+    public static PatientCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            if (separator < 0) {
+                throw new InvalidCursorException("Malformed cursor: " + token);
+            }
+            return new PatientCursor(
+                    LocalDate.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = registrationDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getRegistrationDate() {
+        return registrationDate;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
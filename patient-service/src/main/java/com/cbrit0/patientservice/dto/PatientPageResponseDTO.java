@@ -0,0 +1,24 @@
+package com.cbrit0.patientservice.dto;
+
+import java.util.List;
+
+public class PatientPageResponseDTO {
+    private List<PatientResponseDTO> patients;
+    private String nextCursor;
+
+    public List<PatientResponseDTO> getPatients() {
+        return patients;
+    }
+
+    public void setPatients(List<PatientResponseDTO> patients) {
+        this.patients = patients;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
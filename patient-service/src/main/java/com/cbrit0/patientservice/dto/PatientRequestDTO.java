@@ -24,6 +24,9 @@ public class PatientRequestDTO {
     @NotBlank(groups = CreatePatientValidationGroup.class, message = "Registration date is mandatory")
     private String registrationDate;
 
+    // Optional on update: the version from the last read, so the write is rejected if the patient changed since
+    private Long version;
+
     public String getName() {
         return name;
     }
@@ -63,4 +66,12 @@ public class PatientRequestDTO {
     public void setRegistrationDate(String registrationDate) {
         this.registrationDate = registrationDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
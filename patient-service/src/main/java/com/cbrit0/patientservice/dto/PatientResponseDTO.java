@@ -6,6 +6,7 @@ public class PatientResponseDTO {
     private String email;
     private String address;
     private String birthDate;
+    private Long version;
 
     public String getId() {
         return id;
@@ -46,4 +47,12 @@ public class PatientResponseDTO {
     public void setBirthDate(String birthDate) {
         this.birthDate = birthDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
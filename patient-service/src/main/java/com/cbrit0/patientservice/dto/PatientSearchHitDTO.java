@@ -0,0 +1,13 @@
+package com.cbrit0.patientservice.dto;
+
+public class PatientSearchHitDTO extends PatientResponseDTO {
+    private float score;
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,15 @@
+package com.cbrit0.patientservice.dto;
+
+import java.util.List;
+
+public class PatientSearchResponseDTO {
+    private List<PatientSearchHitDTO> patients;
+
+    public List<PatientSearchHitDTO> getPatients() {
+        return patients;
+    }
+
+    public void setPatients(List<PatientSearchHitDTO> patients) {
+        this.patients = patients;
+    }
+}
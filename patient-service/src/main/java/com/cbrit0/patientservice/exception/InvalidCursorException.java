@@ -0,0 +1,7 @@
+package com.cbrit0.patientservice.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,93 @@
+package com.cbrit0.patientservice.grpc;
+
+import billing.BillingRequest;
+import billing.BillingResponse;
+import io.micrometer.observation.Observation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Coalesces concurrent requests into a batch that is flushed when it is full or its time window closes
+class BillingRequestBatcher {
+
+    // The observation is the caller's span for this request, so the batch call can be traced back to a caller
+    record PendingRequest(BillingRequest request, CompletableFuture<BillingResponse> response, Observation observation) {
+    }
+
+    private final int maxBatchSize;
+    private final long maxDelayMs;
+    private final Consumer<List<PendingRequest>> sender;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<PendingRequest> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    BillingRequestBatcher(int maxBatchSize, long maxDelayMs, Consumer<List<PendingRequest>> sender) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMs = maxDelayMs;
+        this.sender = sender;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "billing-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    CompletableFuture<BillingResponse> submit(BillingRequest request, Observation observation) {
+        PendingRequest pendingRequest = new PendingRequest(request, new CompletableFuture<>(), observation);
+        List<PendingRequest> full = null;
+
+        lock.lock();
+        try {
+            pending.add(pendingRequest);
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Send outside the lock so callers never wait on the network while holding it
+        if (full != null) {
+            sender.accept(full);
+        }
+        return pendingRequest.response();
+    }
+
+    void flush() {
+        List<PendingRequest> batch;
+        lock.lock();
+        try {
+            batch = takePending();
+        } finally {
+            lock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            sender.accept(batch);
+        }
+    }
+
+    void shutdown() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    private List<PendingRequest> takePending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PendingRequest> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+}
@@ -1,35 +1,164 @@
 package com.cbrit0.patientservice.grpc;
 
+import billing.BillingBatchResponse;
 import billing.BillingRequest;
 import billing.BillingResponse;
 import billing.BillingServiceGrpc;
+import com.cbrit0.patientservice.grpc.BillingRequestBatcher.PendingRequest;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcClientInterceptor;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class BillingServiceGrpcClient {
     private static final Logger log = LoggerFactory.getLogger(BillingServiceGrpcClient.class);
-    private final BillingServiceGrpc.BillingServiceBlockingStub billingServiceBlockingStub;
+    private final ManagedChannel channel;
+    private final ExecutorService channelExecutor;
+    private final BillingServiceGrpc.BillingServiceStub billingServiceStub;
+    private final BillingRequestBatcher batcher;
+    private final long deadlineMs;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final DistributionSummary batchSize;
 
-    public BillingServiceGrpcClient(@Value("${billing.service.address:localhost}") String serverAddress,
-                                    @Value("${billing.service.port:9001}") int serverPort) {
+    public BillingServiceGrpcClient(MeterRegistry meterRegistry,
+                                    ObservationRegistry observationRegistry,
+                                    @Value("${billing.service.address:localhost}") String serverAddress,
+                                    @Value("${billing.service.port:9001}") int serverPort,
+                                    @Value("${billing.service.deadline-ms:2000}") long deadlineMs,
+                                    @Value("${billing.batch.max-size:100}") int maxBatchSize,
+                                    @Value("${billing.batch.max-delay-ms:10}") long maxBatchDelayMs,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         log.info("Connecting to Billing Service at {}:{}", serverAddress, serverPort);
 
-        ManagedChannel channel = ManagedChannelBuilder.forAddress(serverAddress, serverPort).usePlaintext().build();
+        // Response observers run on the channel executor; gRPC's default is an unbounded cached platform pool
+        // The observation interceptor writes the current trace context into the call's metadata
+        ManagedChannelBuilder<?> channelBuilder = ManagedChannelBuilder.forAddress(serverAddress, serverPort)
+                .usePlaintext()
+                .intercept(new ObservationGrpcClientInterceptor(observationRegistry));
+        if (virtualThreads) {
+            channelExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            channelBuilder.executor(channelExecutor);
+        } else {
+            channelExecutor = null;
+        }
+        channel = channelBuilder.build();
 
-        billingServiceBlockingStub = BillingServiceGrpc.newBlockingStub(channel);
+        billingServiceStub = BillingServiceGrpc.newStub(channel);
+        batcher = new BillingRequestBatcher(maxBatchSize, maxBatchDelayMs, this::sendBatch);
+        this.deadlineMs = deadlineMs;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.batchSize = DistributionSummary.builder("billing.grpc.client.batch.size")
+                .description("Billing requests sent per CreateBillingAccounts stream")
+                .register(meterRegistry);
     }
 
-    public BillingResponse createBillingAccount(String patientId, String name, String email) {
+    // Completes on a gRPC transport thread; callers should hop to their own executor before blocking work.
+    // The observation spans queueing and the batch call, so each caller's trace shows its full wait for billing.
+    public CompletableFuture<BillingResponse> createBillingAccount(String patientId, String name, String email) {
         BillingRequest request = BillingRequest.newBuilder().setPatientId(patientId).setName(name).setEmail(email).build();
+        Observation observation = Observation.createNotStarted("billing.account.create", observationRegistry)
+                .contextualName("billing account create")
+                .start();
+
+        log.debug("Queueing billing account creation for patient ID: {}", patientId);
+        return batcher.submit(request, observation).whenComplete((response, error) -> {
+            if (error != null) {
+                observation.error(error);
+            }
+            observation.stop();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batcher.shutdown();
+        channel.shutdown();
+        if (channelExecutor != null) {
+            channelExecutor.shutdown();
+        }
+    }
+
+    // One client-streaming call per batch instead of one unary round trip per patient
+    private void sendBatch(List<PendingRequest> batch) {
+        Map<String, List<CompletableFuture<BillingResponse>>> waiting = new HashMap<>();
+        for (PendingRequest pendingRequest : batch) {
+            waiting.computeIfAbsent(pendingRequest.request().getPatientId(), id -> new ArrayList<>())
+                    .add(pendingRequest.response());
+        }
+        batchSize.record(batch.size());
+        long start = System.nanoTime();
+
+        // A call has one parent, so the batch is traced under its oldest request
+        try (Observation.Scope scope = batch.getFirst().observation().openScope()) {
+            streamBatch(batch, waiting, start);
+        }
+    }
+
+    private void streamBatch(List<PendingRequest> batch, Map<String, List<CompletableFuture<BillingResponse>>> waiting,
+                             long start) {
+        StreamObserver<BillingRequest> requests = billingServiceStub
+                .withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                .createBillingAccounts(new StreamObserver<>() {
+                    @Override
+                    public void onNext(BillingBatchResponse batchResponse) {
+                        for (BillingResponse response : batchResponse.getResponsesList()) {
+                            List<CompletableFuture<BillingResponse>> futures = waiting.remove(response.getPatientId());
+                            if (futures != null) {
+                                futures.forEach(future -> future.complete(response));
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        recordCall(start, Status.fromThrowable(t).getCode());
+                        log.warn("Billing batch of {} requests failed: {}", batch.size(), t.getMessage());
+                        batch.forEach(pendingRequest -> pendingRequest.response().completeExceptionally(t));
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        recordCall(start, Status.Code.OK);
+                        IllegalStateException missing = new IllegalStateException("No billing response for patient");
+                        waiting.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(missing)));
+                    }
+                });
+
+        log.debug("Sending billing batch of {} requests", batch.size());
+        batch.forEach(pendingRequest -> requests.onNext(pendingRequest.request()));
+        requests.onCompleted();
+    }
 
-        log.info("Creating billing account for patient ID: {}", patientId);
-        BillingResponse response = billingServiceBlockingStub.createBillingAccount(request);
-        log.info("Billing account created: {}", response);
-        return response;
+    // Round trip of one batch stream, tagged with the gRPC status it ended with
+    private void recordCall(long startNanos, Status.Code status) {
+        Timer.builder("billing.grpc.client")
+                .description("CreateBillingAccounts calls from patient-service to billing-service")
+                .tag("method", "CreateBillingAccounts")
+                .tag("outcome", status.name())
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
     }
 }
@@ -1,33 +1,87 @@
 package com.cbrit0.patientservice.kafka;
 
-import com.cbrit0.patientservice.model.Patient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
-import patient.event.PatientEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class KafkaProducer {
     private static final Logger log = LoggerFactory.getLogger(KafkaProducer.class);
+    private static final String TOPIC = "patient";
+    private static final String TRACE_PARENT = "traceparent";
+
     private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final Timer sentTimer;
+    private final Timer failedTimer;
+    private final Propagator propagator;
 
-    public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate) {
+    public KafkaProducer(KafkaTemplate<String, byte[]> kafkaTemplate, MeterRegistry meterRegistry,
+                         ObjectProvider<Propagator> propagator) {
         this.kafkaTemplate = kafkaTemplate;
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+        this.sentTimer = publishTimer(meterRegistry, "sent");
+        this.failedTimer = publishTimer(meterRegistry, "failed");
     }
 
-    public void sendEvent(Patient patient) {
-        PatientEvent event = PatientEvent.newBuilder()
-                .setPatientId(patient.getId().toString())
-                .setName(patient.getName())
-                .setEmail(patient.getEmail())
-                .setEventType("PATIENT_CREATED")
-                .build();
-
-        try {
-            kafkaTemplate.send("patient", event.toByteArray());
-        } catch (Exception e) {
-            log.error("Error sending PatientCreated event to Kafka: {}", e.getMessage(), e);
+    // Keyed by patient id so all events for one patient go to the same partition and keep their relay order.
+    // The callback runs on the producer's I/O thread, so it only records the outcome and the time to acknowledgement.
+    // With the trace context of the request that caused the event, the send is a producer span in that trace and
+    // its context goes out in the record headers for consumers to continue.
+    public CompletableFuture<SendResult<String, byte[]>> send(String patientId, byte[] event, String traceParent) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(TOPIC, patientId, event);
+        Span span = traceParent == null ? null : producerSpan(traceParent);
+        if (span != null) {
+            propagator.inject(span.context(), record, (carrier, key, value) ->
+                    carrier.headers().remove(key).add(key, value.getBytes(StandardCharsets.UTF_8)));
         }
+
+        long start = System.nanoTime();
+        return kafkaTemplate.send(record).whenComplete((result, error) -> {
+            long elapsed = System.nanoTime() - start;
+            if (span != null) {
+                if (error != null) {
+                    span.error(error);
+                }
+                span.end();
+            }
+            if (error == null) {
+                sentTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                log.debug("Published event for patient {} to {}-{}@{}", patientId, TOPIC,
+                        result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+            } else {
+                failedTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                log.warn("Failed to publish event for patient {}: {}", patientId, error.getMessage());
+            }
+        });
+    }
+
+    private Span producerSpan(String traceParent) {
+        return propagator.extract(Map.of(TRACE_PARENT, traceParent), Map::get)
+                .name("patient send")
+                .kind(Span.Kind.PRODUCER)
+                .tag("messaging.system", "kafka")
+                .tag("messaging.destination.name", TOPIC)
+                .start();
+    }
+
+    private static Timer publishTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("patient.events.publish")
+                .description("Time from send until the broker acknowledged or rejected a patient event")
+                .tag("topic", TOPIC)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,144 @@
+package com.cbrit0.patientservice.kafka;
+
+import com.cbrit0.patientservice.model.OutboxEvent;
+import com.cbrit0.patientservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaProducer kafkaProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final Duration claimTtl;
+    private final Counter relayedCounter;
+    private final Counter failureCounter;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaProducer kafkaProducer,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${outbox.relay.claim-ttl-ms:30000}") long claimTtlMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaProducer = kafkaProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.claimTtl = Duration.ofMillis(claimTtlMs);
+        this.relayedCounter = meterRegistry.counter("outbox.relay.events", "outcome", "sent");
+        this.failureCounter = meterRegistry.counter("outbox.relay.events", "outcome", "failed");
+        Gauge.builder("outbox.relay.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest event still waiting in the outbox")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay failed: {}", e.getMessage(), e);
+        } finally {
+            updateLag();
+        }
+    }
+
+    // Claim, send and delete each run in their own step so no transaction or row lock is held while waiting on acks
+    private int relayBatch() {
+        List<OutboxEvent> events = transactionTemplate.execute(status -> claimBatch());
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> sentIds = new ArrayList<>(events.size());
+        try {
+            sendAll(events, sentIds);
+        } finally {
+            List<Long> unsentIds = events.subList(sentIds.size(), events.size()).stream()
+                    .map(OutboxEvent::getId)
+                    .toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!sentIds.isEmpty()) {
+                    outboxEventRepository.deleteAllByIdInBatch(sentIds);
+                }
+                if (!unsentIds.isEmpty()) {
+                    outboxEventRepository.updateClaimedUntil(unsentIds, null);
+                }
+            });
+        }
+        relayedCounter.increment(sentIds.size());
+        return sentIds.size();
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findAllByOrderByIdAsc(Limit.of(batchSize));
+        Instant now = Instant.now();
+        // Another replica is still sending the head of the outbox; one relay at a time keeps the sends in id order
+        if (events.stream().anyMatch(event -> event.getClaimedUntil() != null && event.getClaimedUntil().isAfter(now))) {
+            return List.of();
+        }
+        if (!events.isEmpty()) {
+            outboxEventRepository.updateClaimedUntil(events.stream().map(OutboxEvent::getId).toList(), now.plus(claimTtl));
+        }
+        return events;
+    }
+
+    private void sendAll(List<OutboxEvent> events, List<Long> sentIds) {
+        List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            sends.add(kafkaProducer.send(event.getAggregateId(), event.getPayload(), event.getTraceParent()));
+        }
+
+        // Only delete the acknowledged prefix; anything after a failure is released and retried on the next tick
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                sends.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                sentIds.add(events.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                failureCounter.increment(events.size() - i);
+                log.warn("Error relaying outbox event {} to Kafka: {}", events.get(i).getId(), e.getMessage());
+                break;
+            }
+        }
+    }
+
+    private void updateLag() {
+        long lag = outboxEventRepository.findFirstByOrderByIdAsc()
+                .map(event -> Duration.between(event.getCreatedAt(), Instant.now()).toMillis())
+                .orElse(0L);
+        lagMillis.set(lag);
+    }
+}
@@ -0,0 +1,57 @@
+package com.cbrit0.patientservice.kafka;
+
+import com.cbrit0.patientservice.service.PatientCache;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import patient.event.PatientEvent;
+
+import java.util.UUID;
+
+@Component
+public class PatientCacheInvalidationListener {
+    private static final Logger log = LoggerFactory.getLogger(PatientCacheInvalidationListener.class);
+
+    private final PatientCache patientCache;
+
+    public PatientCacheInvalidationListener(PatientCache patientCache) {
+        this.patientCache = patientCache;
+    }
+
+    // A group of its own per replica, so every replica sees every event; only events from now on matter for a cache
+    @KafkaListener(
+            topics = "patient",
+            groupId = "${spring.application.name}-cache-${patient.instance-id}",
+            autoStartup = "${patient.cache.invalidation.enabled:true}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+            })
+    public void onPatientEvent(byte[] event) {
+        PatientEvent patientEvent;
+        try {
+            patientEvent = PatientEvent.parseFrom(event);
+        } catch (InvalidProtocolBufferException e) {
+            log.error("Error parsing PatientEvent {}", e.getMessage());
+            return;
+        }
+
+        UUID id;
+        try {
+            id = UUID.fromString(patientEvent.getPatientId());
+        } catch (IllegalArgumentException e) {
+            log.error("Ignoring PatientEvent with malformed patient id {}", patientEvent.getPatientId());
+            return;
+        }
+        switch (patientEvent.getEventType()) {
+            case "PATIENT_UPDATED" -> patientCache.evictIfOlderThan(id, patientEvent.getVersion());
+            case "PATIENT_DELETED" -> patientCache.invalidate(id);
+            default -> {
+                // Creates cannot make an existing entry stale
+            }
+        }
+    }
+}
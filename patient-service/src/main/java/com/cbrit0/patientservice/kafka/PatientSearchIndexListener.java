@@ -0,0 +1,60 @@
+package com.cbrit0.patientservice.kafka;
+
+import com.cbrit0.patientservice.mapper.PatientMapper;
+import com.cbrit0.patientservice.service.PatientSearchService;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import patient.event.PatientEvent;
+
+import java.util.UUID;
+
+@Component
+public class PatientSearchIndexListener {
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndexListener.class);
+
+    private final PatientSearchService patientSearchService;
+
+    public PatientSearchIndexListener(PatientSearchService patientSearchService) {
+        this.patientSearchService = patientSearchService;
+    }
+
+    // Like the cache listener, every replica reads every event so writes made elsewhere reach its local index.
+    // Documents are built from the event itself, so events for this replica's own writes cost no database read.
+    @KafkaListener(
+            topics = "patient",
+            groupId = "${spring.application.name}-search-${patient.instance-id}",
+            autoStartup = "${patient.search.sync.enabled:true}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "key.deserializer=org.apache.kafka.common.serialization.StringDeserializer",
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+            })
+    public void onPatientEvent(byte[] event) {
+        PatientEvent patientEvent;
+        try {
+            patientEvent = PatientEvent.parseFrom(event);
+        } catch (InvalidProtocolBufferException e) {
+            log.error("Error parsing PatientEvent {}", e.getMessage());
+            return;
+        }
+
+        UUID id;
+        try {
+            id = UUID.fromString(patientEvent.getPatientId());
+        } catch (IllegalArgumentException e) {
+            log.error("Ignoring PatientEvent with malformed patient id {}", patientEvent.getPatientId());
+            return;
+        }
+
+        if ("PATIENT_DELETED".equals(patientEvent.getEventType())) {
+            patientSearchService.remove(id);
+        } else if (patientEvent.getBirthDate().isEmpty()) {
+            patientSearchService.reindex(id);
+        } else {
+            patientSearchService.index(PatientMapper.fromEvent(patientEvent));
+        }
+    }
+}
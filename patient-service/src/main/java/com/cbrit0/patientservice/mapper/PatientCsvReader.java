@@ -0,0 +1,118 @@
+package com.cbrit0.patientservice.mapper;
+
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.exception.BulkImportFormatException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Streams RFC 4180 CSV rows whose header names PatientRequestDTO fields (name,email,address,birthDate,registrationDate)
+public class PatientCsvReader implements Iterator<PatientRequestDTO> {
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private List<String> next;
+
+    public PatientCsvReader(InputStream inputStream) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new BulkImportFormatException("CSV body is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        if (!columns.containsKey("email")) {
+            throw new BulkImportFormatException("CSV header must contain an email column");
+        }
+        this.next = readRecord();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public PatientRequestDTO next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        List<String> record = next;
+        next = readRecord();
+
+        PatientRequestDTO patient = new PatientRequestDTO();
+        patient.setName(column(record, "name"));
+        patient.setEmail(column(record, "email"));
+        patient.setAddress(column(record, "address"));
+        patient.setBirthDate(column(record, "birthDate"));
+        patient.setRegistrationDate(column(record, "registrationDate"));
+        return patient;
+    }
+
+    private String column(List<String> record, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    private List<String> readRecord() {
+        try {
+            String line = reader.readLine();
+            while (line != null && line.isBlank()) {
+                line = reader.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                // Quoted field spans lines
+                line = reader.readLine();
+                if (line == null) {
+                    throw new BulkImportFormatException("Unterminated quoted CSV field");
+                }
+                field.append('\n');
+            }
+            fields.add(field.toString());
+            return fields;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
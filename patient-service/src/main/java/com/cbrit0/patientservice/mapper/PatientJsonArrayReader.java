@@ -0,0 +1,63 @@
+package com.cbrit0.patientservice.mapper;
+
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.exception.BulkImportFormatException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Reads a JSON array of patients one element at a time instead of binding the whole body
+public class PatientJsonArrayReader implements Iterator<PatientRequestDTO> {
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private JsonToken next;
+
+    public PatientJsonArrayReader(ObjectMapper objectMapper, InputStream inputStream) {
+        this.objectMapper = objectMapper;
+        try {
+            this.parser = objectMapper.getFactory().createParser(inputStream);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BulkImportFormatException("Expected a JSON array of patients");
+            }
+            this.next = parser.nextToken();
+        } catch (IOException e) {
+            throw new BulkImportFormatException("Malformed JSON body", e);
+        }
+    }
+
+    // Anything but another object or the end of the array is rejected, so a stray value can't end the import early
+    @Override
+    public boolean hasNext() {
+        if (next == JsonToken.START_OBJECT) {
+            return true;
+        }
+        if (next == JsonToken.END_ARRAY) {
+            return false;
+        }
+        if (next == null) {
+            throw new BulkImportFormatException("Unexpected end of JSON body before the end of the array");
+        }
+        throw new BulkImportFormatException("Expected a patient object but found " + next
+                + " at line " + parser.currentLocation().getLineNr()
+                + ", column " + parser.currentLocation().getColumnNr());
+    }
+
+    @Override
+    public PatientRequestDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            PatientRequestDTO patient = objectMapper.readValue(parser, PatientRequestDTO.class);
+            next = parser.nextToken();
+            return patient;
+        } catch (IOException e) {
+            throw new BulkImportFormatException("Malformed JSON body", e);
+        }
+    }
+}
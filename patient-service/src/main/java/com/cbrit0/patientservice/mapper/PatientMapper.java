@@ -1,10 +1,13 @@
 package com.cbrit0.patientservice.mapper;
 
+import com.cbrit0.patientservice.dto.BillingStatusResponseDTO;
 import com.cbrit0.patientservice.dto.PatientRequestDTO;
 import com.cbrit0.patientservice.dto.PatientResponseDTO;
 import com.cbrit0.patientservice.model.Patient;
+import patient.event.PatientEvent;
 
 import java.time.LocalDate;
+import java.util.UUID;
 
 public class PatientMapper {
     public static PatientResponseDTO toDTO(Patient patient) {
@@ -14,6 +17,7 @@ public class PatientMapper {
         patientDTO.setEmail(patient.getEmail());
         patientDTO.setAddress(patient.getAddress());
         patientDTO.setBirthDate(patient.getBirthDate().toString());
+        patientDTO.setVersion(patient.getVersion());
         return patientDTO;
     }
 
@@ -26,4 +30,38 @@ public class PatientMapper {
         patient.setRegistrationDate(LocalDate.parse(patientRequestDTO.getRegistrationDate()));
         return patient;
     }
+
+    public static PatientEvent toEvent(Patient patient, String eventType) {
+        return PatientEvent.newBuilder()
+                .setPatientId(patient.getId().toString())
+                .setName(patient.getName())
+                .setEmail(patient.getEmail())
+                .setEventType(eventType)
+                .setVersion(patient.getVersion() == null ? 0 : patient.getVersion())
+                .setAddress(patient.getAddress())
+                .setBirthDate(patient.getBirthDate().toString())
+                .build();
+    }
+
+    // Only the fields the search index stores; events carry no registration date or billing state
+    public static Patient fromEvent(PatientEvent event) {
+        Patient patient = new Patient();
+        patient.setId(UUID.fromString(event.getPatientId()));
+        patient.setName(event.getName());
+        patient.setEmail(event.getEmail());
+        patient.setAddress(event.getAddress());
+        patient.setBirthDate(LocalDate.parse(event.getBirthDate()));
+        patient.setVersion(event.getVersion());
+        return patient;
+    }
+
+    public static BillingStatusResponseDTO toBillingStatusDTO(Patient patient) {
+        BillingStatusResponseDTO billingDTO = new BillingStatusResponseDTO();
+        billingDTO.setPatientId(patient.getId().toString());
+        billingDTO.setStatus(patient.getBillingStatus() == null ? null : patient.getBillingStatus().name());
+        billingDTO.setAccountId(patient.getBillingAccountId());
+        billingDTO.setAttempts(patient.getBillingAttempts());
+        billingDTO.setNextAttemptAt(patient.getBillingNextAttemptAt() == null ? null : patient.getBillingNextAttemptAt().toString());
+        return billingDTO;
+    }
 }
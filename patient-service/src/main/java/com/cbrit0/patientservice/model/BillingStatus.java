@@ -0,0 +1,7 @@
+package com.cbrit0.patientservice.model;
+
+public enum BillingStatus {
+    PENDING,
+    ACTIVE,
+    FAILED
+}
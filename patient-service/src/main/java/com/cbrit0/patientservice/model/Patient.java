@@ -3,15 +3,26 @@ package com.cbrit0.patientservice.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UuidGenerator;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
 
+// Updates only write changed columns, so editing patient details never overwrites concurrently recorded billing state
 @Entity
+@DynamicUpdate
+@Table(indexes = {
+        @Index(name = "idx_patient_registration_date_id", columnList = "registration_date, id"),
+        @Index(name = "idx_patient_billing_retry", columnList = "billing_status, billing_next_attempt_at")
+})
 public class Patient {
 
+    // Assigned in memory and time-ordered, so inserts can be JDBC-batched and stay index-friendly
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidGenerator(style = UuidGenerator.Style.TIME)
     private UUID id;
 
     @NotNull
@@ -31,6 +42,23 @@ public class Patient {
     @NotNull
     private LocalDate registrationDate;
 
+    @Enumerated(EnumType.STRING)
+    private BillingStatus billingStatus;
+
+    private String billingAccountId;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int billingAttempts;
+
+    private Instant billingNextAttemptAt;
+
+    // Carried on PatientEvents so replicas can tell whether their cached copy is older
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public UUID getId() {
         return id;
     }
@@ -78,4 +106,44 @@ public class Patient {
     public void setRegistrationDate(LocalDate registrationDate) {
         this.registrationDate = registrationDate;
     }
+
+    public BillingStatus getBillingStatus() {
+        return billingStatus;
+    }
+
+    public void setBillingStatus(BillingStatus billingStatus) {
+        this.billingStatus = billingStatus;
+    }
+
+    public String getBillingAccountId() {
+        return billingAccountId;
+    }
+
+    public void setBillingAccountId(String billingAccountId) {
+        this.billingAccountId = billingAccountId;
+    }
+
+    public int getBillingAttempts() {
+        return billingAttempts;
+    }
+
+    public void setBillingAttempts(int billingAttempts) {
+        this.billingAttempts = billingAttempts;
+    }
+
+    public Instant getBillingNextAttemptAt() {
+        return billingNextAttemptAt;
+    }
+
+    public void setBillingNextAttemptAt(Instant billingNextAttemptAt) {
+        this.billingNextAttemptAt = billingNextAttemptAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -1,14 +1,60 @@
 package com.cbrit0.patientservice.repository;
 
+import com.cbrit0.patientservice.model.BillingStatus;
 import com.cbrit0.patientservice.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, UUID> {
+public interface PatientRepository extends JpaRepository<Patient, UUID>, JpaSpecificationExecutor<Patient> {
 
-    boolean existsByEmail(String email);
-    boolean existsByEmailAndIdNot(String email, UUID id);
+    @Query("select p.email from Patient p where p.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Forward-only cursor; must be consumed inside a transaction so the driver honours the fetch size
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Patient p order by p.registrationDate, p.id")
+    Stream<Patient> streamAll();
+
+    List<Patient> findByBillingStatusAndBillingNextAttemptAtLessThanEqualOrderByBillingNextAttemptAt(
+            BillingStatus billingStatus, Instant now, Limit limit);
+
+    // Compare-and-set on the scheduled attempt so only one poller (or replica) dispatches a patient
+    @Transactional
+    @Modifying
+    @Query("update Patient p set p.billingNextAttemptAt = :next where p.id = :id and p.billingNextAttemptAt = :expected")
+    int claimBillingAttempt(@Param("id") UUID id, @Param("expected") Instant expected, @Param("next") Instant next);
+
+    @Transactional
+    @Modifying
+    @Query("update Patient p set p.billingStatus = :status, p.billingAccountId = :accountId, "
+            + "p.billingNextAttemptAt = null where p.id = :id")
+    int markBillingActive(@Param("id") UUID id, @Param("status") BillingStatus status,
+                          @Param("accountId") String accountId);
+
+    @Transactional
+    @Modifying
+    @Query("update Patient p set p.billingStatus = :status, p.billingAttempts = p.billingAttempts + 1, "
+            + "p.billingNextAttemptAt = :next where p.id = :id")
+    int recordBillingFailure(@Param("id") UUID id, @Param("status") BillingStatus status,
+                             @Param("next") Instant next);
 }
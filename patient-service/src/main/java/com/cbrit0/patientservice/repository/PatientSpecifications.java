@@ -0,0 +1,54 @@
+package com.cbrit0.patientservice.repository;
+
+import com.cbrit0.patientservice.dto.PatientCursor;
+import com.cbrit0.patientservice.dto.PatientFilterDTO;
+import com.cbrit0.patientservice.model.Patient;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class PatientSpecifications {
+
+    public static final Sort KEYSET_SORT = Sort.by("registrationDate", "id");
+
+    private PatientSpecifications() {
+    }
+
+    public static Specification<Patient> pageOf(PatientFilterDTO filter, PatientCursor cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getName() != null && !filter.getName().isBlank()) {
+                predicates.add(cb.like(cb.lower(root.get("name")),
+                        escapeLike(filter.getName().trim().toLowerCase()) + "%", '\\'));
+            }
+            if (filter.getEmail() != null && !filter.getEmail().isBlank()) {
+                predicates.add(cb.equal(root.get("email"), filter.getEmail().trim()));
+            }
+            if (filter.getBirthDateFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("birthDate"), filter.getBirthDateFrom()));
+            }
+            if (filter.getBirthDateTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("birthDate"), filter.getBirthDateTo()));
+            }
+
+            // Seek past the last row of the previous page instead of using OFFSET
+            if (cursor != null) {
+                predicates.add(cb.or(
+                        cb.greaterThan(root.get("registrationDate"), cursor.getRegistrationDate()),
+                        cb.and(
+                                cb.equal(root.get("registrationDate"), cursor.getRegistrationDate()),
+                                cb.greaterThan(root.get("id"), cursor.getId()))));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,75 @@
+package com.cbrit0.patientservice.repository;
+
+import com.cbrit0.patientservice.model.Patient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Single-statement writes that hand back the affected row, so callers need no read before or after the change
+@Repository
+public class PatientWriteRepository {
+    private static final String COLUMNS = "id, name, email, address, birth_date, registration_date, version";
+
+    private static final String UPDATE_DETAILS = """
+            UPDATE patient SET name = ?, email = ?, address = ?, birth_date = ?, version = version + 1
+            WHERE id = ?""";
+    // With the version the client last read, so a write based on stale data matches no row
+    private static final String UPDATE_DETAILS_IF_VERSION = UPDATE_DETAILS + " AND version = ?";
+
+    private static final String DELETE = "DELETE FROM patient WHERE id = ?";
+
+    private static final RowMapper<Patient> PATIENT_ROW = (rs, rowNum) -> {
+        Patient patient = new Patient();
+        patient.setId(rs.getObject("id", UUID.class));
+        patient.setName(rs.getString("name"));
+        patient.setEmail(rs.getString("email"));
+        patient.setAddress(rs.getString("address"));
+        patient.setBirthDate(rs.getObject("birth_date", LocalDate.class));
+        patient.setRegistrationDate(rs.getObject("registration_date", LocalDate.class));
+        patient.setVersion(rs.getLong("version"));
+        return patient;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String updateDetailsReturning;
+    private final String updateDetailsIfVersionReturning;
+    private final String deleteReturning;
+
+    public PatientWriteRepository(JdbcTemplate jdbcTemplate, @Value("${spring.datasource.url:}") String datasourceUrl) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        // PostgreSQL has RETURNING; H2, the embedded database used for local runs and tests when no URL is configured,
+        // exposes the affected rows as data change delta tables
+        if (DatabaseDriver.fromJdbcUrl(datasourceUrl) == DatabaseDriver.POSTGRESQL) {
+            this.updateDetailsReturning = UPDATE_DETAILS + " RETURNING " + COLUMNS;
+            this.updateDetailsIfVersionReturning = UPDATE_DETAILS_IF_VERSION + " RETURNING " + COLUMNS;
+            this.deleteReturning = DELETE + " RETURNING " + COLUMNS;
+        } else {
+            this.updateDetailsReturning = "SELECT " + COLUMNS + " FROM FINAL TABLE (" + UPDATE_DETAILS + ")";
+            this.updateDetailsIfVersionReturning = "SELECT " + COLUMNS + " FROM FINAL TABLE (" + UPDATE_DETAILS_IF_VERSION + ")";
+            this.deleteReturning = "SELECT " + COLUMNS + " FROM OLD TABLE (" + DELETE + ")";
+        }
+    }
+
+    // Empty when no patient has this id or, given an expected version, when the patient has moved past it.
+    // A clash with another patient's email surfaces as DuplicateKeyException
+    public Optional<Patient> updateDetails(UUID id, Long expectedVersion, String name, String email, String address,
+                                           LocalDate birthDate) {
+        List<Patient> updated = expectedVersion == null
+                ? jdbcTemplate.query(updateDetailsReturning, PATIENT_ROW, name, email, address, birthDate, id)
+                : jdbcTemplate.query(updateDetailsIfVersionReturning, PATIENT_ROW,
+                        name, email, address, birthDate, id, expectedVersion);
+        return updated.stream().findFirst();
+    }
+
+    public Optional<Patient> delete(UUID id) {
+        return jdbcTemplate.query(deleteReturning, PATIENT_ROW, id).stream().findFirst();
+    }
+}
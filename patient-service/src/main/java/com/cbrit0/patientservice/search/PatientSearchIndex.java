@@ -0,0 +1,300 @@
+package com.cbrit0.patientservice.search;
+
+import com.cbrit0.patientservice.dto.PatientSearchHitDTO;
+import com.cbrit0.patientservice.model.Patient;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.CharTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LiveFieldValues;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@Component
+public class PatientSearchIndex {
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String EMAIL = "email";
+    private static final String ADDRESS = "address";
+    private static final String BIRTH_DATE = "birthDate";
+    // Patient version the document was built from; a deleted patient keeps a text-less tombstone at DELETED
+    private static final String VERSION = "version";
+    private static final long DELETED = Long.MAX_VALUE;
+    private static final long MISSING = -1;
+    // Words of name, email and address together, for exact and fuzzy matching
+    private static final String WORDS = "words";
+    // The leading characters of every word, so typing ahead is one posting-list lookup instead of a term-dictionary scan
+    private static final String PREFIXES = "prefixes";
+    private static final String NAME_PREFIXES = "namePrefixes";
+    private static final String EMAIL_EXACT = "emailExact";
+
+    // Any field can satisfy a term; matches in the name, and whole words in the name, rank higher
+    private static final float NAME_PREFIX_BOOST = 2f;
+    private static final float NAME_WORD_BOOST = 3f;
+    private static final float EMAIL_EXACT_BOOST = 10f;
+    // Single letters would match a large share of patients for little benefit
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_LENGTH = 12;
+    private static final int FUZZY_MAX_EXPANSIONS = 50;
+
+    private final Analyzer analyzer = new PatientAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    // Versions written since the last refresh, falling back to the stored field once the reader can see them
+    private final LiveFieldValues<IndexSearcher, Long> versions;
+
+    // Without a directory the index lives on the heap; at scale point it at local disk so it is memory-mapped instead
+    @Autowired
+    public PatientSearchIndex(@Value("${patient.search.index-dir:}") String indexDir) throws IOException {
+        this(indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir)));
+    }
+
+    PatientSearchIndex(Directory directory) throws IOException {
+        this.directory = directory;
+        // The database is the source of truth, so every start begins from an empty index and rebuilds it
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+                .setRAMBufferSizeMB(64);
+        this.writer = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(writer, null);
+        this.versions = new LiveFieldValues<>(searcherManager, MISSING) {
+            @Override
+            protected Long lookupFromSearcher(IndexSearcher searcher, String id) throws IOException {
+                TopDocs topDocs = searcher.search(new TermQuery(new Term(ID, id)), 1);
+                if (topDocs.scoreDocs.length == 0) {
+                    return null;
+                }
+                return searcher.storedFields().document(topDocs.scoreDocs[0].doc).getField(VERSION).numericValue().longValue();
+            }
+        };
+    }
+
+    public void index(Patient patient) {
+        Document document = new Document();
+        document.add(new StringField(ID, patient.getId().toString(), Field.Store.YES));
+        document.add(new TextField(NAME, patient.getName(), Field.Store.YES));
+        document.add(new TextField(NAME_PREFIXES, patient.getName(), Field.Store.NO));
+        document.add(new StoredField(EMAIL, patient.getEmail()));
+        document.add(new StringField(EMAIL_EXACT, patient.getEmail().toLowerCase(Locale.ROOT), Field.Store.NO));
+        document.add(new StoredField(ADDRESS, patient.getAddress()));
+        document.add(new StoredField(BIRTH_DATE, patient.getBirthDate().toString()));
+        document.add(new StoredField(VERSION, version(patient)));
+        for (String text : List.of(patient.getName(), patient.getEmail(), patient.getAddress())) {
+            document.add(new TextField(WORDS, text, Field.Store.NO));
+            document.add(new TextField(PREFIXES, text, Field.Store.NO));
+        }
+        write(patient.getId(), document, version(patient));
+    }
+
+    // Ids are never reused, so the tombstone outranks every event still in flight for the patient.
+    // It has no text fields and so matches no query; tombstones are dropped with the rest of the index on restart.
+    public void remove(UUID id) {
+        Document tombstone = new Document();
+        tombstone.add(new StringField(ID, id.toString(), Field.Store.YES));
+        tombstone.add(new StoredField(VERSION, DELETED));
+        write(id, tombstone, DELETED);
+    }
+
+    // -1 when the patient has never been indexed
+    public long indexedVersion(UUID id) {
+        try {
+            Long version = versions.get(id.toString());
+            return version == null ? MISSING : version;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Typos are only considered when the text matches nothing as typed, which keeps the common case cheap
+    public List<PatientSearchHitDTO> search(String text, int limit) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(buildQuery(text, terms, false), limit);
+                if (topDocs.scoreDocs.length == 0 && terms.stream().anyMatch(term -> maxEdits(term) > 0)) {
+                    topDocs = searcher.search(buildQuery(text, terms, true), limit);
+                }
+                StoredFields storedFields = searcher.storedFields();
+                List<PatientSearchHitDTO> hits = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    hits.add(toHit(storedFields.document(scoreDoc.doc), scoreDoc.score));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes become searchable once the next refresh opens a new near-real-time reader
+    @Scheduled(fixedDelayString = "${patient.search.refresh-interval-ms:500}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        versions.close();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private void write(UUID id, Document document, long version) {
+        try {
+            writer.updateDocument(new Term(ID, id.toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        versions.add(id.toString(), version);
+    }
+
+    private static long version(Patient patient) {
+        return patient.getVersion() == null ? 0 : patient.getVersion();
+    }
+
+    // Every term has to match, as a word or the start of one, in some field
+    private static Query buildQuery(String text, List<String> terms, boolean fuzzy) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            Query match = matchQuery(term);
+            int maxEdits = maxEdits(term);
+            if (fuzzy && maxEdits > 0) {
+                match = new BooleanQuery.Builder()
+                        .add(match, Occur.SHOULD)
+                        .add(new FuzzyQuery(new Term(WORDS, term), maxEdits, 1, FUZZY_MAX_EXPANSIONS, true), Occur.SHOULD)
+                        .build();
+            }
+            query.add(match, Occur.MUST);
+            if (term.length() >= MIN_PREFIX_LENGTH && term.length() <= MAX_PREFIX_LENGTH) {
+                query.add(new BoostQuery(new TermQuery(new Term(NAME_PREFIXES, term)), NAME_PREFIX_BOOST), Occur.SHOULD);
+            }
+            query.add(new BoostQuery(new TermQuery(new Term(NAME, term)), NAME_WORD_BOOST), Occur.SHOULD);
+        }
+
+        // An email typed as-is, whole or partially, puts that patient first
+        String normalized = text.strip().toLowerCase(Locale.ROOT);
+        if (normalized.indexOf('@') > 0) {
+            query.add(new BoostQuery(new PrefixQuery(new Term(EMAIL_EXACT, normalized)), EMAIL_EXACT_BOOST), Occur.SHOULD);
+        }
+        return query.build();
+    }
+
+    private static Query matchQuery(String term) {
+        if (term.length() < MIN_PREFIX_LENGTH) {
+            return new TermQuery(new Term(WORDS, term));
+        }
+        if (term.length() <= MAX_PREFIX_LENGTH) {
+            return new TermQuery(new Term(PREFIXES, term));
+        }
+        return new PrefixQuery(new Term(WORDS, term));
+    }
+
+    // House numbers and the numeric part of an email are typed exactly; a near miss there is a different patient
+    private static int maxEdits(String term) {
+        if (term.chars().anyMatch(Character::isDigit)) {
+            return 0;
+        }
+        return term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static PatientSearchHitDTO toHit(Document document, float score) {
+        PatientSearchHitDTO hit = new PatientSearchHitDTO();
+        hit.setId(document.get(ID));
+        hit.setName(document.get(NAME));
+        hit.setEmail(document.get(EMAIL));
+        hit.setAddress(document.get(ADDRESS));
+        hit.setBirthDate(document.get(BIRTH_DATE));
+        hit.setScore(score);
+        return hit;
+    }
+
+    // Splits on anything but letters and digits, so "doe" finds "john.doe@example.com",
+    // then lower-cases and folds accents, so "jose" finds "José"
+    private static final class PatientAnalyzer extends Analyzer {
+        PatientAnalyzer() {
+            super(PER_FIELD_REUSE_STRATEGY);
+        }
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = CharTokenizer.fromTokenCharPredicate(Character::isLetterOrDigit);
+            TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            if (fieldName.equals(PREFIXES) || fieldName.equals(NAME_PREFIXES)) {
+                stream = new EdgeNGramTokenFilter(stream, MIN_PREFIX_LENGTH, MAX_PREFIX_LENGTH, false);
+            }
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
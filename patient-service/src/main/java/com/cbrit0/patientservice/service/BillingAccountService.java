@@ -0,0 +1,135 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.BillingStatusResponseDTO;
+import com.cbrit0.patientservice.exception.PatientNotFoundException;
+import com.cbrit0.patientservice.grpc.BillingServiceGrpcClient;
+import com.cbrit0.patientservice.mapper.PatientMapper;
+import com.cbrit0.patientservice.model.BillingStatus;
+import com.cbrit0.patientservice.model.Patient;
+import com.cbrit0.patientservice.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+// Billing accounts are created after the patient commits; PENDING rows in the patient table act as the retry queue
+@Service
+public class BillingAccountService {
+    private static final Logger log = LoggerFactory.getLogger(BillingAccountService.class);
+
+    private final PatientRepository patientRepository;
+    private final BillingServiceGrpcClient billingServiceGrpcClient;
+    private final Executor billingCallbackExecutor;
+    private final Semaphore inFlight;
+    private final Duration dispatchGrace;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+    private final int retryBatchSize;
+
+    public BillingAccountService(PatientRepository patientRepository,
+                                 BillingServiceGrpcClient billingServiceGrpcClient,
+                                 @Qualifier("billingCallbackExecutor") Executor billingCallbackExecutor,
+                                 @Value("${billing.service.max-in-flight:256}") int maxInFlight,
+                                 @Value("${billing.retry.dispatch-grace-ms:30000}") long dispatchGraceMs,
+                                 @Value("${billing.retry.initial-backoff-ms:1000}") long initialBackoffMs,
+                                 @Value("${billing.retry.max-backoff-ms:300000}") long maxBackoffMs,
+                                 @Value("${billing.retry.max-attempts:10}") int maxAttempts,
+                                 @Value("${billing.retry.batch-size:100}") int retryBatchSize) {
+        this.patientRepository = patientRepository;
+        this.billingServiceGrpcClient = billingServiceGrpcClient;
+        this.billingCallbackExecutor = billingCallbackExecutor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.dispatchGrace = Duration.ofMillis(dispatchGraceMs);
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.maxAttempts = maxAttempts;
+        this.retryBatchSize = retryBatchSize;
+    }
+
+    // Called before the patient is saved; the grace period keeps the retry poller away while the first attempt runs
+    public void markPending(Patient patient) {
+        patient.setBillingStatus(BillingStatus.PENDING);
+        patient.setBillingAttempts(0);
+        patient.setBillingNextAttemptAt(Instant.now().plus(dispatchGrace));
+    }
+
+    public void dispatch(Patient patient) {
+        dispatch(patient.getId(), patient.getName(), patient.getEmail(), patient.getBillingAttempts());
+    }
+
+    public void dispatchAll(List<Patient> patients) {
+        patients.forEach(this::dispatch);
+    }
+
+    public BillingStatusResponseDTO getBillingStatus(UUID patientId) {
+        Patient patient = patientRepository.findById(patientId).orElseThrow(
+                () -> new PatientNotFoundException("Patient with id " + patientId + " not found.")
+        );
+        return PatientMapper.toBillingStatusDTO(patient);
+    }
+
+    @Scheduled(fixedDelayString = "${billing.retry.interval-ms:5000}")
+    public void retryPending() {
+        Instant now = Instant.now();
+        List<Patient> due = patientRepository.findByBillingStatusAndBillingNextAttemptAtLessThanEqualOrderByBillingNextAttemptAt(
+                BillingStatus.PENDING, now, Limit.of(retryBatchSize));
+
+        for (Patient patient : due) {
+            if (patientRepository.claimBillingAttempt(patient.getId(), patient.getBillingNextAttemptAt(), now.plus(dispatchGrace)) == 1) {
+                dispatch(patient);
+            }
+        }
+    }
+
+    private void dispatch(UUID patientId, String name, String email, int attempts) {
+        // Over the limit the patient simply stays PENDING and is picked up by the retry poller
+        if (!inFlight.tryAcquire()) {
+            log.debug("Billing concurrency limit reached, deferring patient {}", patientId);
+            return;
+        }
+
+        billingServiceGrpcClient.createBillingAccount(patientId.toString(), name, email)
+                .whenCompleteAsync((response, error) -> {
+                    try {
+                        if (error == null) {
+                            patientRepository.markBillingActive(patientId, BillingStatus.ACTIVE, response.getAccountId());
+                            log.info("Billing account {} created for patient {}", response.getAccountId(), patientId);
+                        } else {
+                            recordFailure(patientId, attempts + 1, error);
+                        }
+                    } catch (Exception e) {
+                        log.error("Error recording billing result for patient {}: {}", patientId, e.getMessage(), e);
+                    } finally {
+                        inFlight.release();
+                    }
+                }, billingCallbackExecutor);
+    }
+
+    private void recordFailure(UUID patientId, int attempts, Throwable error) {
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on billing account for patient {} after {} attempts: {}",
+                    patientId, attempts, error.getMessage());
+            patientRepository.recordBillingFailure(patientId, BillingStatus.FAILED, null);
+            return;
+        }
+
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        log.warn("Billing account creation failed for patient {} (attempt {}), retrying in {}: {}",
+                patientId, attempts, backoff, error.getMessage());
+        patientRepository.recordBillingFailure(patientId, BillingStatus.PENDING, Instant.now().plus(backoff));
+    }
+}
@@ -0,0 +1,69 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.mapper.PatientMapper;
+import com.cbrit0.patientservice.model.OutboxEvent;
+import com.cbrit0.patientservice.model.Patient;
+import com.cbrit0.patientservice.repository.OutboxEventRepository;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OutboxService {
+    private static final String TRACE_PARENT = "traceparent";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, Tracer tracer,
+                         ObjectProvider<Propagator> propagator) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.tracer = tracer;
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
+    }
+
+    // Must join the caller's transaction so the event commits or rolls back with the patient row
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Patient patient, String eventType) {
+        outboxEventRepository.save(toOutboxEvent(patient, eventType, currentTraceParent()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<Patient> patients, String eventType) {
+        String traceParent = currentTraceParent();
+        outboxEventRepository.saveAll(patients.stream()
+                .map(patient -> toOutboxEvent(patient, eventType, traceParent))
+                .toList());
+    }
+
+    // The relay sends from its own thread, long after the request's span has ended, so the context travels in the row
+    private String currentTraceParent() {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>();
+        propagator.inject(span.context(), carrier, Map::put);
+        return carrier.get(TRACE_PARENT);
+    }
+
+    private static OutboxEvent toOutboxEvent(Patient patient, String eventType, String traceParent) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateId(patient.getId().toString());
+        event.setEventType(eventType);
+        event.setPayload(PatientMapper.toEvent(patient, eventType).toByteArray());
+        event.setCreatedAt(Instant.now());
+        event.setTraceParent(traceParent);
+        return event;
+    }
+}
@@ -0,0 +1,202 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.BulkImportResponseDTO;
+import com.cbrit0.patientservice.dto.BulkImportRowResultDTO;
+import com.cbrit0.patientservice.dto.BulkImportRowResultDTO.Status;
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.dto.validators.CreatePatientValidationGroup;
+import com.cbrit0.patientservice.mapper.PatientMapper;
+import com.cbrit0.patientservice.model.Patient;
+import com.cbrit0.patientservice.repository.PatientRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class PatientBulkImportService {
+    private static final Logger log = LoggerFactory.getLogger(PatientBulkImportService.class);
+
+    private final PatientRepository patientRepository;
+    private final BillingAccountService billingAccountService;
+    private final OutboxService outboxService;
+    private final PatientSearchService patientSearchService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public PatientBulkImportService(PatientRepository patientRepository,
+                                    BillingAccountService billingAccountService,
+                                    OutboxService outboxService,
+                                    PatientSearchService patientSearchService,
+                                    Validator validator,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${patient.bulk-import.chunk-size:500}") int chunkSize) {
+        this.patientRepository = patientRepository;
+        this.billingAccountService = billingAccountService;
+        this.outboxService = outboxService;
+        this.patientSearchService = patientSearchService;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkImportResponseDTO importPatients(Iterator<PatientRequestDTO> rows) {
+        List<BulkImportRowResultDTO> results = new ArrayList<>();
+        List<PatientRequestDTO> chunk = new ArrayList<>(chunkSize);
+        int rowNumber = 0;
+
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == chunkSize) {
+                results.addAll(importChunk(chunk, rowNumber));
+                rowNumber += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk, rowNumber));
+        }
+
+        int created = (int) results.stream().filter(result -> result.getStatus() == Status.CREATED).count();
+        log.info("Bulk import finished: {} rows, {} created", results.size(), created);
+
+        BulkImportResponseDTO response = new BulkImportResponseDTO();
+        response.setTotal(results.size());
+        response.setCreated(created);
+        response.setRejected(results.size() - created);
+        response.setResults(results);
+        return response;
+    }
+
+    private List<BulkImportRowResultDTO> importChunk(List<PatientRequestDTO> chunk, int firstRow) {
+        BulkImportRowResultDTO[] results = new BulkImportRowResultDTO[chunk.size()];
+        List<Integer> candidateIndexes = new ArrayList<>();
+        List<Patient> candidates = new ArrayList<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            PatientRequestDTO row = chunk.get(i);
+            Map<String, String> errors = validate(row);
+            if (!errors.isEmpty()) {
+                results[i] = BulkImportRowResultDTO.rejected(firstRow + i + 1, Status.INVALID, errors);
+                continue;
+            }
+            try {
+                Patient patient = PatientMapper.toModel(row);
+                billingAccountService.markPending(patient);
+                candidates.add(patient);
+                candidateIndexes.add(i);
+            } catch (DateTimeParseException e) {
+                results[i] = BulkImportRowResultDTO.rejected(firstRow + i + 1, Status.INVALID,
+                        Map.of("message", "Invalid date: " + e.getParsedString()));
+            }
+        }
+
+        // One set-based lookup per chunk instead of one existsByEmail per row
+        Set<String> takenEmails = candidates.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(patientRepository.findExistingEmails(
+                        candidates.stream().map(Patient::getEmail).toList()));
+
+        List<Patient> toInsert = new ArrayList<>();
+        List<Integer> toInsertIndexes = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Patient patient = candidates.get(i);
+            int index = candidateIndexes.get(i);
+            if (!takenEmails.add(patient.getEmail())) {
+                results[index] = BulkImportRowResultDTO.rejected(firstRow + index + 1, Status.DUPLICATE,
+                        Map.of("email", "Email already exists"));
+                continue;
+            }
+            toInsert.add(patient);
+            toInsertIndexes.add(index);
+        }
+
+        // Insertion order is kept so billing dispatch and search indexing follow the input
+        Set<Patient> inserted = new LinkedHashSet<>(insert(toInsert));
+        for (int i = 0; i < toInsert.size(); i++) {
+            Patient patient = toInsert.get(i);
+            int index = toInsertIndexes.get(i);
+            results[index] = inserted.contains(patient)
+                    ? BulkImportRowResultDTO.created(firstRow + index + 1, patient.getId().toString())
+                    : BulkImportRowResultDTO.rejected(firstRow + index + 1, Status.FAILED,
+                            Map.of("message", "Patient could not be saved"));
+        }
+
+        if (!inserted.isEmpty()) {
+            billingAccountService.dispatchAll(List.copyOf(inserted));
+            inserted.forEach(patientSearchService::index);
+        }
+
+        return List.of(results);
+    }
+
+    private List<Patient> insert(List<Patient> patients) {
+        if (patients.isEmpty()) {
+            return List.of();
+        }
+        try {
+            // Flushed as JDBC batches of hibernate.jdbc.batch_size on commit
+            transactionTemplate.executeWithoutResult(status -> {
+                patientRepository.saveAll(patients);
+                outboxService.enqueueAll(patients, "PATIENT_CREATED");
+            });
+            return patients;
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent writer took one of the emails; fall back to row-by-row so only that row fails
+            log.warn("Chunk insert rejected by database, retrying row by row: {}", e.getMostSpecificCause().getMessage());
+            List<Patient> inserted = new ArrayList<>();
+            for (Patient patient : patients) {
+                try {
+                    Patient copy = copyOf(patient);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        patientRepository.save(copy);
+                        outboxService.enqueue(copy, "PATIENT_CREATED");
+                    });
+                    patient.setId(copy.getId());
+                    inserted.add(patient);
+                } catch (DataIntegrityViolationException rowException) {
+                    log.warn("Row rejected by database: {}", rowException.getMostSpecificCause().getMessage());
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static Patient copyOf(Patient patient) {
+        Patient copy = new Patient();
+        copy.setName(patient.getName());
+        copy.setEmail(patient.getEmail());
+        copy.setAddress(patient.getAddress());
+        copy.setBirthDate(patient.getBirthDate());
+        copy.setRegistrationDate(patient.getRegistrationDate());
+        copy.setBillingStatus(patient.getBillingStatus());
+        copy.setBillingNextAttemptAt(patient.getBillingNextAttemptAt());
+        return copy;
+    }
+
+    private Map<String, String> validate(PatientRequestDTO row) {
+        Set<ConstraintViolation<PatientRequestDTO>> violations =
+                validator.validate(row, Default.class, CreatePatientValidationGroup.class);
+
+        Map<String, String> errors = new HashMap<>();
+        violations.forEach(violation ->
+                errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        return errors;
+    }
+}
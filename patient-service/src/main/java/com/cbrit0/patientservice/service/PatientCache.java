@@ -0,0 +1,58 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.PatientResponseDTO;
+import com.cbrit0.patientservice.mapper.PatientMapper;
+import com.cbrit0.patientservice.model.Patient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+@Component
+public class PatientCache {
+    private final Cache<UUID, CachedPatient> patientsById;
+
+    public PatientCache(MeterRegistry meterRegistry,
+                        @Value("${patient.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${patient.cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.patientsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, patientsById, "patients");
+    }
+
+    // Concurrent misses for the same id share one load; absent patients are not cached
+    public Optional<PatientResponseDTO> get(UUID id, Function<UUID, Optional<Patient>> loader) {
+        CachedPatient cached = patientsById.get(id, key -> loader.apply(key).map(CachedPatient::of).orElse(null));
+        return Optional.ofNullable(cached).map(CachedPatient::patient);
+    }
+
+    // Called after the write has committed, so a load racing with it cannot leave the old row cached
+    public void put(Patient patient) {
+        patientsById.put(patient.getId(), CachedPatient.of(patient));
+    }
+
+    public void invalidate(UUID id) {
+        patientsById.invalidate(id);
+    }
+
+    // Events from this replica's own writes carry the version already cached and leave the entry alone
+    public void evictIfOlderThan(UUID id, long version) {
+        patientsById.asMap().computeIfPresent(id, (key, cached) -> cached.version() < version ? null : cached);
+    }
+
+    private record CachedPatient(PatientResponseDTO patient, long version) {
+        static CachedPatient of(Patient patient) {
+            return new CachedPatient(PatientMapper.toDTO(patient), patient.getVersion() == null ? 0 : patient.getVersion());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.PatientSearchRequestDTO;
+import com.cbrit0.patientservice.dto.PatientSearchResponseDTO;
+import com.cbrit0.patientservice.model.Patient;
+import com.cbrit0.patientservice.repository.PatientRepository;
+import com.cbrit0.patientservice.search.PatientSearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Service
+public class PatientSearchService {
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchService.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final PatientSearchIndex patientSearchIndex;
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final TaskExecutor taskExecutor;
+    private final Timer searchTimer;
+    // Index writes for one patient are serialized, so a slow reload cannot overwrite a newer write
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    // Patients written while the startup rebuild runs; the rebuild's older copy of them is skipped
+    private volatile Set<UUID> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public PatientSearchService(PatientSearchIndex patientSearchIndex, PatientRepository patientRepository,
+                                TransactionTemplate transactionTemplate, EntityManager entityManager,
+                                @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                MeterRegistry meterRegistry) {
+        this.patientSearchIndex = patientSearchIndex;
+        this.patientRepository = patientRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.taskExecutor = taskExecutor;
+        this.searchTimer = meterRegistry.timer("patient.search");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public PatientSearchResponseDTO search(PatientSearchRequestDTO request) {
+        PatientSearchResponseDTO response = new PatientSearchResponseDTO();
+        response.setPatients(searchTimer.record(() -> patientSearchIndex.search(request.getQ(), request.getSize())));
+        return response;
+    }
+
+    // Called after the write has committed, and for patient events from every replica. Those can arrive after a newer
+    // local write or out of order with each other, so only a version newer than the indexed one replaces the document.
+    public void index(Patient patient) {
+        long version = patient.getVersion() == null ? 0 : patient.getVersion();
+        withLock(patient.getId(), () -> {
+            if (version > patientSearchIndex.indexedVersion(patient.getId())) {
+                patientSearchIndex.index(patient);
+            }
+        });
+    }
+
+    public void remove(UUID id) {
+        withLock(id, () -> patientSearchIndex.remove(id));
+    }
+
+    // For events published before they carried the address and birth date; a missing row means the patient is gone
+    public void reindex(UUID id) {
+        patientRepository.findById(id).ifPresentOrElse(this::index, () -> remove(id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        taskExecutor.execute(this::rebuild);
+    }
+
+    void rebuild() {
+        long start = System.nanoTime();
+        long[] count = {0};
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Patient> patients = patientRepository.streamAll()) {
+                    patients.forEach(patient -> {
+                        ReentrantLock lock = lockFor(patient.getId());
+                        lock.lock();
+                        try {
+                            if (!changedDuringRebuild.contains(patient.getId())) {
+                                patientSearchIndex.index(patient);
+                            }
+                        } finally {
+                            lock.unlock();
+                        }
+                        entityManager.detach(patient);
+                        count[0]++;
+                    });
+                }
+            });
+        } finally {
+            changedDuringRebuild = null;
+        }
+        patientSearchIndex.refresh();
+        log.info("Patient search index rebuilt with {} patients in {} ms", count[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void withLock(UUID id, Runnable write) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Set<UUID> changed = changedDuringRebuild;
+            if (changed != null) {
+                changed.add(id);
+            }
+            write.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(UUID id) {
+        return locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+    }
+}
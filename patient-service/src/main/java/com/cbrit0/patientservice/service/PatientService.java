@@ -1,83 +1,202 @@
 package com.cbrit0.patientservice.service;
 
+import com.cbrit0.patientservice.dto.PatientCursor;
+import com.cbrit0.patientservice.dto.PatientFilterDTO;
+import com.cbrit0.patientservice.dto.PatientPageResponseDTO;
 import com.cbrit0.patientservice.dto.PatientRequestDTO;
 import com.cbrit0.patientservice.dto.PatientResponseDTO;
 import com.cbrit0.patientservice.exception.EmailAlreadyExistsException;
 import com.cbrit0.patientservice.exception.PatientNotFoundException;
-import com.cbrit0.patientservice.grpc.BillingServiceGrpcClient;
-import com.cbrit0.patientservice.kafka.KafkaProducer;
 import com.cbrit0.patientservice.mapper.PatientMapper;
 import com.cbrit0.patientservice.model.Patient;
 import com.cbrit0.patientservice.repository.PatientRepository;
+import com.cbrit0.patientservice.repository.PatientSpecifications;
+import com.cbrit0.patientservice.repository.PatientWriteRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class PatientService {
 
-    private final PatientRepository patientRepository;
-    private final BillingServiceGrpcClient billingServiceGrpcClient;
-    private final KafkaProducer kafkaProducer;
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+    private static final String UNIQUE_VIOLATION = "23505";
 
-    public PatientService(PatientRepository patientRepository,
-                          BillingServiceGrpcClient billingServiceGrpcClient, KafkaProducer kafkaProducer) {
+    private final PatientRepository patientRepository;
+    private final PatientWriteRepository patientWriteRepository;
+    private final PatientCache patientCache;
+    private final PatientSearchService patientSearchService;
+    private final BillingAccountService billingAccountService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public PatientService(PatientRepository patientRepository, PatientWriteRepository patientWriteRepository,
+                          PatientCache patientCache, PatientSearchService patientSearchService,
+                          BillingAccountService billingAccountService, OutboxService outboxService,
+                          TransactionTemplate transactionTemplate, EntityManager entityManager,
+                          ObjectMapper objectMapper) {
         this.patientRepository = patientRepository;
-        this.billingServiceGrpcClient = billingServiceGrpcClient;
-        this.kafkaProducer = kafkaProducer;
+        this.patientWriteRepository = patientWriteRepository;
+        this.patientCache = patientCache;
+        this.patientSearchService = patientSearchService;
+        this.billingAccountService = billingAccountService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
     }
 
-    public List<PatientResponseDTO> getAllPatients() {
-        List<Patient> patients = patientRepository.findAll();
+    public PatientPageResponseDTO getPatients(PatientFilterDTO filter) {
+        PatientCursor cursor = filter.getCursor() == null ? null : PatientCursor.decode(filter.getCursor());
+        int size = filter.getSize();
+
+        // Fetch one extra row to know whether another page exists without a count query
+        List<Patient> patients = patientRepository.findBy(
+                PatientSpecifications.pageOf(filter, cursor),
+                query -> query.sortBy(PatientSpecifications.KEYSET_SORT).limit(size + 1).all());
+
+        boolean hasMore = patients.size() > size;
+        List<Patient> page = hasMore ? patients.subList(0, size) : patients;
 
-        return patients.stream()
-                .map(PatientMapper::toDTO)
-                .toList();
+        PatientPageResponseDTO response = new PatientPageResponseDTO();
+        response.setPatients(page.stream().map(PatientMapper::toDTO).toList());
+        response.setNextCursor(hasMore ? PatientCursor.of(page.get(size - 1)).encode() : null);
+        return response;
     }
 
-    public PatientResponseDTO createPatient(PatientRequestDTO patientRequestDTO) {
-        if (patientRepository.existsByEmail(patientRequestDTO.getEmail())) {
-            throw new EmailAlreadyExistsException("Patient with email " + patientRequestDTO.getEmail() + " already exists.");
+    public PatientResponseDTO getPatient(UUID id) {
+        return patientCache.get(id, patientRepository::findById)
+                .orElseThrow(() -> new PatientNotFoundException("Patient with id " + id + " not found."));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportPatients(OutputStream outputStream) throws IOException {
+        // Writers flush after every value by default, which would defeat EXPORT_FLUSH_INTERVAL
+        ObjectWriter writer = objectMapper.writerFor(PatientResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<Patient> patients = patientRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+
+            long count = 0;
+            for (Patient patient : (Iterable<Patient>) patients::iterator) {
+                writer.writeValue(generator, PatientMapper.toDTO(patient));
+                generator.writeRaw('\n');
+
+                // Keep the persistence context from growing with the table
+                entityManager.detach(patient);
+
+                if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
         }
+    }
 
+    public PatientResponseDTO createPatient(PatientRequestDTO patientRequestDTO) {
         Patient patient = PatientMapper.toModel(patientRequestDTO);
-        Patient savedPatient = patientRepository.save(patient);
-
-        billingServiceGrpcClient.createBillingAccount(
-                savedPatient.getId().toString(),
-                savedPatient.getName(),
-                savedPatient.getEmail());
+        billingAccountService.markPending(patient);
+
+        // The unique constraint on email is the duplicate check; the PatientCreated event is relayed once this commits
+        Patient savedPatient;
+        try {
+            savedPatient = transactionTemplate.execute(status -> {
+                Patient saved = patientRepository.saveAndFlush(patient);
+                outboxService.enqueue(saved, "PATIENT_CREATED");
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailConflict(e, patientRequestDTO.getEmail());
+        }
 
-        kafkaProducer.sendEvent(savedPatient);
+        // Returns immediately; the billing outcome is recorded on the patient
+        billingAccountService.dispatch(savedPatient);
 
+        patientCache.put(savedPatient);
+        patientSearchService.index(savedPatient);
         return PatientMapper.toDTO(savedPatient);
     }
 
     public PatientResponseDTO updatePatient(UUID id, PatientRequestDTO patientRequestDTO) {
-
-        Patient patient = patientRepository.findById(id).orElseThrow(
-                () -> new PatientNotFoundException("Patient with id " + id + " not found.")
-        );
-
-        if (patientRepository.existsByEmailAndIdNot(patientRequestDTO.getEmail(), id)) {
-            throw new EmailAlreadyExistsException("Patient with email " + patientRequestDTO.getEmail() + " already exists.");
+        // Other replicas evict their cached copy when the PatientUpdated event reaches them
+        Patient updatedPatient;
+        try {
+            updatedPatient = transactionTemplate.execute(status -> {
+                Patient patient = patientWriteRepository.updateDetails(
+                        id,
+                        patientRequestDTO.getVersion(),
+                        patientRequestDTO.getName(),
+                        patientRequestDTO.getEmail(),
+                        patientRequestDTO.getAddress(),
+                        LocalDate.parse(patientRequestDTO.getBirthDate())
+                ).orElseThrow(() -> missingOrModified(id, patientRequestDTO.getVersion()));
+
+                outboxService.enqueue(patient, "PATIENT_UPDATED");
+                return patient;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailConflict(e, patientRequestDTO.getEmail());
         }
 
-        patient.setName(patientRequestDTO.getName());
-        patient.setEmail(patientRequestDTO.getEmail());
-        patient.setAddress(patientRequestDTO.getAddress());
-        patient.setBirthDate(LocalDate.parse(patientRequestDTO.getBirthDate()));
-
-        Patient updatedPatient = patientRepository.save(patient);
+        patientCache.put(updatedPatient);
+        patientSearchService.index(updatedPatient);
         return PatientMapper.toDTO(updatedPatient);
     }
 
     public void deletePatient(UUID id) {
-        if (!patientRepository.existsById(id)) {
-            throw new PatientNotFoundException("Patient with id " + id + " not found.");
+        transactionTemplate.executeWithoutResult(status -> {
+            Patient patient = patientWriteRepository.delete(id).orElseThrow(
+                    () -> new PatientNotFoundException("Patient with id " + id + " not found.")
+            );
+
+            outboxService.enqueue(patient, "PATIENT_DELETED");
+        });
+
+        patientCache.invalidate(id);
+        patientSearchService.remove(id);
+    }
+
+    // No row updated: either the patient is gone or someone else wrote since the client read the expected version
+    private RuntimeException missingOrModified(UUID id, Long expectedVersion) {
+        if (expectedVersion != null && patientRepository.existsById(id)) {
+            return new ObjectOptimisticLockingFailureException(Patient.class, id);
+        }
+        return new PatientNotFoundException("Patient with id " + id + " not found.");
+    }
+
+    // Email is the only unique column a client controls, so a unique violation here is an email clash
+    private static RuntimeException translateEmailConflict(DataIntegrityViolationException e, String email) {
+        if (e instanceof DuplicateKeyException || hasSqlState(e, UNIQUE_VIOLATION)) {
+            return new EmailAlreadyExistsException("Patient with email " + email + " already exists.");
+        }
+        return e;
+    }
+
+    private static boolean hasSqlState(Throwable e, String sqlState) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlState.equals(sqlException.getSQLState())) {
+                return true;
+            }
         }
-        patientRepository.deleteById(id);
+        return false;
     }
 }
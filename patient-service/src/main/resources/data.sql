@@ -6,9 +6,29 @@ CREATE TABLE IF NOT EXISTS patient
     email           VARCHAR(255) UNIQUE NOT NULL,
     address         VARCHAR(255)        NOT NULL,
     birth_date   DATE                NOT NULL,
-    registration_date DATE                NOT NULL
+    registration_date DATE                NOT NULL,
+    billing_status VARCHAR(20),
+    billing_account_id VARCHAR(255),
+    billing_attempts INT DEFAULT 0 NOT NULL,
+    billing_next_attempt_at TIMESTAMP(6) WITH TIME ZONE,
+    version BIGINT DEFAULT 0 NOT NULL
     );
 
+-- Backs keyset pagination on (registration_date, id)
+CREATE INDEX IF NOT EXISTS idx_patient_registration_date_id ON patient (registration_date, id);
+
+-- Billing columns for tables created before asynchronous billing
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS billing_status VARCHAR(20);
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS billing_account_id VARCHAR(255);
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS billing_attempts INT DEFAULT 0 NOT NULL;
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS billing_next_attempt_at TIMESTAMP(6) WITH TIME ZONE;
+
+-- Optimistic locking version, also carried on PatientEvents
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- Backs the billing retry poller
+CREATE INDEX IF NOT EXISTS idx_patient_billing_retry ON patient (billing_status, billing_next_attempt_at);
+
 -- Insert well-known UUIDs for specific patients
 INSERT INTO patient (id, name, email, address, birth_date, registration_date)
 SELECT '123e4567-e89b-12d3-a456-426614174000',
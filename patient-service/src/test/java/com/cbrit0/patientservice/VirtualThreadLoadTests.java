@@ -0,0 +1,179 @@
+package com.cbrit0.patientservice;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Runs the same blocking workload against platform and virtual threads and compares throughput and p99.
+// Opt-in: mvn test -Dtest=VirtualThreadLoadTests -Dloadtest=true [-Dloadtest.clients=400 -Dloadtest.duration=15s -Dloadtest.query-latency-ms=20]
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTests {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadTests.class);
+
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 400);
+    private static final Duration WARM_UP = Duration.ofSeconds(3);
+    private static final Duration DURATION = Duration.parse("PT" + System.getProperty("loadtest.duration", "15s"));
+    // Stands in for the network round trip to PostgreSQL, which the in-memory database doesn't have
+    private static final long QUERY_LATENCY_MS = Long.getLong("loadtest.query-latency-ms", 20);
+
+    @Test
+    void virtualThreadsOutlastPlatformThreadsUnderBlockingLoad() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        for (Result result : List.of(platform, virtual)) {
+            log.info("{} threads: {} req/s, p50 {} ms, p99 {} ms, {} errors", result.mode(), Math.round(result.throughput()),
+                    Math.round(result.p50Millis() * 10) / 10.0, Math.round(result.p99Millis() * 10) / 10.0, result.errors());
+        }
+
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+    }
+
+    private static Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                PatientServiceApplication.class, SimulatedQueryLatency.class)
+                .properties(
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.port=0",
+                        "server.tomcat.threads.max=50",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest-" + mode,
+                        "spring.datasource.hikari.maximum-pool-size=200",
+                        "grpc.server.port=-1",
+                        "patient.cache.invalidation.enabled=false",
+                        "patient.search.sync.enabled=false",
+                        "outbox.relay.interval-ms=3600000",
+                        "billing.retry.interval-ms=3600000",
+                        "logging.level.root=WARN",
+                        "logging.level.com.cbrit0.patientservice.VirtualThreadLoadTests=INFO")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/patients?size=20");
+
+            try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+                drive(client, uri, WARM_UP);
+                return summarize(mode, drive(client, uri, DURATION));
+            }
+        }
+    }
+
+    private static Load drive(HttpClient client, URI uri, Duration duration) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+
+        List<Future<long[]>> workers = new ArrayList<>(CLIENTS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        List<long[]> latencies = new ArrayList<>(CLIENTS);
+        for (Future<long[]> worker : workers) {
+            latencies.add(worker.get());
+        }
+        return new Load(latencies, errors.get(), duration);
+    }
+
+    private static Result summarize(String mode, Load load) {
+        long[] all = load.latencies().stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = load.duration().toNanos() / 1e9;
+        return new Result(mode, all.length / seconds, percentile(all, 0.50), percentile(all, 0.99), load.errors());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private record Load(List<long[]> latencies, long errors, Duration duration) {
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, long errors) {
+    }
+
+    static class SimulatedQueryLatency {
+
+        @Bean
+        static BeanPostProcessor slowDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return delayed(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection delayed(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement")) {
+                            Thread.sleep(QUERY_LATENCY_MS);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.cbrit0.patientservice.grpc;
+
+import billing.BillingBatchResponse;
+import billing.BillingRequest;
+import billing.BillingResponse;
+import billing.BillingServiceGrpc;
+import com.cbrit0.patientservice.InMemoryTracing;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Span;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class BillingServiceGrpcClientTests {
+
+    private static final Metadata.Key<String> TRACE_PARENT = Metadata.Key.of("traceparent", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final AtomicInteger streams = new AtomicInteger();
+    private final AtomicReference<String> traceParent = new AtomicReference<>();
+    private Server server;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        ServerInterceptor captureTraceParent = new ServerInterceptor() {
+            @Override
+            public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                               ServerCallHandler<Q, R> next) {
+                traceParent.set(headers.get(TRACE_PARENT));
+                return next.startCall(call, headers);
+            }
+        };
+        server = ServerBuilder.forPort(0).addService(ServerInterceptors.intercept(new BillingServiceGrpc.BillingServiceImplBase() {
+            @Override
+            public StreamObserver<BillingRequest> createBillingAccounts(StreamObserver<BillingBatchResponse> responseObserver) {
+                streams.incrementAndGet();
+                BillingBatchResponse.Builder batch = BillingBatchResponse.newBuilder();
+                return new StreamObserver<>() {
+                    @Override
+                    public void onNext(BillingRequest request) {
+                        batch.addResponses(BillingResponse.newBuilder()
+                                .setPatientId(request.getPatientId())
+                                .setAccountId("account-" + request.getPatientId()));
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        responseObserver.onNext(batch.build());
+                        responseObserver.onCompleted();
+                    }
+                };
+            }
+        }, captureTraceParent)).build().start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.shutdownNow();
+    }
+
+    @Test
+    void coalescesConcurrentRequestsIntoBatches() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // A delay well beyond the enqueue loop, so a scheduling stall cannot flush a partial batch early
+        BillingServiceGrpcClient client = new BillingServiceGrpcClient(meterRegistry, ObservationRegistry.NOOP, "localhost", server.getPort(), 2000, 100, 500, false);
+
+        List<CompletableFuture<BillingResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 1050; i++) {
+            responses.add(client.createBillingAccount("patient-" + i, "name", "email@example.com"));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        client.shutdown();
+
+        // Ten full batches plus one flushed by the time window
+        assertEquals(11, streams.get());
+        assertEquals(11, meterRegistry.get("billing.grpc.client").tag("outcome", "OK").timer().count());
+        assertEquals(1050, meterRegistry.get("billing.grpc.client.batch.size").summary().totalAmount());
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals("account-patient-" + i, responses.get(i).get().getAccountId());
+        }
+    }
+
+    @Test
+    void propagatesTraceContextIntoCallMetadata() throws Exception {
+        try (InMemoryTracing tracing = new InMemoryTracing()) {
+            BillingServiceGrpcClient client = new BillingServiceGrpcClient(new SimpleMeterRegistry(),
+                    tracing.observationRegistry(), "localhost", server.getPort(), 2000, 100, 10, false);
+
+            Span parent = tracing.tracer().nextSpan().name("patient create").start();
+            try (var ignored = tracing.tracer().withSpan(parent)) {
+                client.createBillingAccount("patient-1", "name", "email@example.com").get(5, TimeUnit.SECONDS);
+            } finally {
+                parent.end();
+            }
+            client.shutdown();
+
+            SpanData request = tracing.span("billing account create");
+            assertEquals(parent.context().traceId(), request.getTraceId());
+            assertEquals(parent.context().spanId(), request.getParentSpanId());
+
+            // The gRPC client span is a child of the request and its context is what billing-service receives
+            SpanData call = tracing.span("BillingService/CreateBillingAccounts");
+            assertEquals(request.getSpanId(), call.getParentSpanId());
+            assertNotNull(traceParent.get());
+            assertEquals("00-" + call.getTraceId() + "-" + call.getSpanId() + "-01", traceParent.get());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.cbrit0.patientservice.kafka;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import patient.event.PatientEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Publishes the same patient events through the previous producer settings (unkeyed, uncompressed, no linger),
+// the tuned defaults and the kafka-throughput profile, and reports events/s and bytes sent to the broker.
+// Run with: mvn test -Dtest=KafkaProducerBenchmarkTests -Dloadtest=true [-Dloadtest.events=100000]
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class KafkaProducerBenchmarkTests {
+    private static final Logger log = LoggerFactory.getLogger(KafkaProducerBenchmarkTests.class);
+
+    private static final String TOPIC = "patient";
+    private static final int EVENTS = Integer.getInteger("loadtest.events", 50_000);
+    private static final int PATIENTS = 2_000;
+    private static final String[] EVENT_TYPES = {"PATIENT_CREATED", "PATIENT_UPDATED", "PATIENT_DELETED"};
+
+    private static EmbeddedKafkaKraftBroker broker;
+    private static List<String> keys;
+    private static List<byte[]> payloads;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+
+        List<String> patientIds = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            patientIds.add(UUID.randomUUID().toString());
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        keys = new ArrayList<>(EVENTS);
+        payloads = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            int patient = random.nextInt(PATIENTS);
+            keys.add(patientIds.get(patient));
+            payloads.add(PatientEvent.newBuilder()
+                    .setPatientId(patientIds.get(patient))
+                    .setName("Patient " + patient)
+                    .setEmail("patient" + patient + "@example.com")
+                    .setEventType(EVENT_TYPES[random.nextInt(EVENT_TYPES.length)])
+                    .setVersion(random.nextInt(10))
+                    .build()
+                    .toByteArray());
+        }
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void compareProducerSettings() throws Exception {
+        Map<String, Object> tuned = producerProperties("application.properties");
+        Map<String, Object> baseline = new HashMap<>(tuned);
+        baseline.remove(ProducerConfig.COMPRESSION_TYPE_CONFIG);
+        baseline.remove(ProducerConfig.BATCH_SIZE_CONFIG);
+        baseline.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        Map<String, Object> throughput = producerProperties("application.properties", "application-kafka-throughput.properties");
+
+        Result before = publish("baseline", baseline, false, 500);
+        Result after = publish("tuned", tuned, true, 500);
+        Result profile = publish("kafka-throughput", throughput, true, 2000);
+
+        for (Result result : List.of(before, after, profile)) {
+            log.info("{}: {} events/s, {} bytes sent, {} bytes/event", result.name(), Math.round(result.eventsPerSecond()),
+                    Math.round(result.bytesSent()), Math.round(result.bytesSent() / EVENTS * 10) / 10.0);
+        }
+
+        assertTrue(after.bytesSent() < before.bytesSent(), "compressed batches should put fewer bytes on the wire");
+        assertTrue(profile.bytesSent() < before.bytesSent(), "compressed batches should put fewer bytes on the wire");
+        assertEquals(1, after.maxPartitionsPerPatient(), "keyed events for one patient must share a partition");
+        assertEquals(1, profile.maxPartitionsPerPatient(), "keyed events for one patient must share a partition");
+    }
+
+    // Mirrors the outbox relay: each round sends a batch and waits for every acknowledgement before the next
+    private Result publish(String name, Map<String, Object> properties, boolean keyed, int relayBatchSize) throws Exception {
+        Map<String, Object> config = new HashMap<>(properties);
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(config);
+        KafkaTemplate<String, byte[]> template = new KafkaTemplate<>(factory);
+        Map<String, Integer> partitionsByPatient = new ConcurrentHashMap<>();
+        Map<String, Boolean> patientsOnSeveralPartitions = new ConcurrentHashMap<>();
+        try {
+            long start = System.nanoTime();
+            for (int from = 0; from < EVENTS; from += relayBatchSize) {
+                int to = Math.min(from + relayBatchSize, EVENTS);
+                List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    String patientId = keys.get(i);
+                    sends.add(template.send(TOPIC, keyed ? patientId : null, payloads.get(i)).whenComplete((result, error) -> {
+                        if (error == null) {
+                            int partition = result.getRecordMetadata().partition();
+                            Integer previous = partitionsByPatient.putIfAbsent(patientId, partition);
+                            if (previous != null && previous != partition) {
+                                patientsOnSeveralPartitions.put(patientId, true);
+                            }
+                        }
+                    }));
+                }
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return new Result(name, EVENTS / seconds, metric(template.metrics(), "outgoing-byte-total"),
+                    patientsOnSeveralPartitions.isEmpty() ? 1 : 2);
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private static double metric(Map<MetricName, ? extends Metric> metrics, String name) {
+        return metrics.entrySet().stream()
+                .filter(entry -> entry.getKey().name().equals(name) && entry.getKey().group().equals("producer-metrics"))
+                .mapToDouble(entry -> ((Number) entry.getValue().metricValue()).doubleValue())
+                .sum();
+    }
+
+    // Binds spring.kafka.* from the real property files so the benchmark measures what the service ships with
+    private static Map<String, Object> producerProperties(String... files) throws IOException {
+        Properties merged = new Properties();
+        for (String file : files) {
+            merged.putAll(PropertiesLoaderUtils.loadProperties(new ClassPathResource(file)));
+        }
+        merged.keySet().removeIf(key -> !key.toString().startsWith("spring.kafka."));
+        KafkaProperties kafkaProperties = new Binder(new MapConfigurationPropertySource(merged))
+                .bind("spring.kafka", KafkaProperties.class)
+                .orElseGet(KafkaProperties::new);
+        return new HashMap<>(kafkaProperties.buildProducerProperties(null));
+    }
+
+    private record Result(String name, double eventsPerSecond, double bytesSent, int maxPartitionsPerPatient) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.cbrit0.patientservice.kafka;
+
+import com.cbrit0.patientservice.InMemoryTracing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KafkaProducerTests {
+
+    private final MockProducer<String, byte[]> mockProducer =
+            new MockProducer<>(true, null, new StringSerializer(), new ByteArraySerializer());
+    private InMemoryTracing tracing;
+    private KafkaProducer kafkaProducer;
+
+    @BeforeEach
+    void setUp() {
+        tracing = new InMemoryTracing();
+        KafkaTemplate<String, byte[]> kafkaTemplate = new KafkaTemplate<>(new MockProducerFactory<>(() -> mockProducer));
+        kafkaProducer = new KafkaProducer(kafkaTemplate, new SimpleMeterRegistry(), tracing.propagator());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracing.close();
+    }
+
+    @Test
+    void continuesTheRequestTraceInRecordHeaders() throws Exception {
+        Span request = tracing.tracer().nextSpan().name("patient create").start();
+        String traceParent = "00-" + request.context().traceId() + "-" + request.context().spanId() + "-01";
+        request.end();
+
+        kafkaProducer.send("patient-1", new byte[]{1}, traceParent).get(5, TimeUnit.SECONDS);
+
+        SpanData send = tracing.span("patient send");
+        assertEquals(io.opentelemetry.api.trace.SpanKind.PRODUCER, send.getKind());
+        assertEquals(request.context().traceId(), send.getTraceId());
+        assertEquals(request.context().spanId(), send.getParentSpanId());
+
+        ProducerRecord<String, byte[]> record = mockProducer.history().getFirst();
+        assertEquals("patient-1", record.key());
+        Header header = record.headers().lastHeader("traceparent");
+        assertEquals("00-" + send.getTraceId() + "-" + send.getSpanId() + "-01",
+                new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sendsWithoutTraceHeadersWhenThereIsNoTraceContext() throws Exception {
+        kafkaProducer.send("patient-1", new byte[]{1}, null).get(5, TimeUnit.SECONDS);
+
+        assertNull(mockProducer.history().getFirst().headers().lastHeader("traceparent"));
+        assertTrue(tracing.spans().isEmpty());
+    }
+}
@@ -0,0 +1,187 @@
+package com.cbrit0.patientservice.kafka;
+
+import com.cbrit0.patientservice.model.OutboxEvent;
+import com.cbrit0.patientservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTests {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final KafkaProducer kafkaProducer = mock(KafkaProducer.class);
+    private final TrackingTransactionManager transactionManager = new TrackingTransactionManager();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findFirstByOrderByIdAsc()).thenReturn(Optional.empty());
+        relay = new OutboxRelay(repository, kafkaProducer, new TransactionTemplate(transactionManager),
+                meterRegistry, 10, 100, 30_000);
+    }
+
+    @Test
+    void deletesEverythingWhenAllSendsAreAcknowledged() {
+        List<OutboxEvent> events = events(1, 2, 3);
+        when(repository.findAllByOrderByIdAsc(any(Limit.class))).thenReturn(events).thenReturn(List.of());
+        sends(acked(), acked(), acked());
+
+        relay.relay();
+
+        verify(repository).updateClaimedUntil(eq(List.of(1L, 2L, 3L)), any(Instant.class));
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(repository, never()).updateClaimedUntil(anyList(), isNull());
+        assertEquals(3.0, count("sent"));
+        assertEquals(0.0, count("failed"));
+    }
+
+    @Test
+    void deletesOnlyTheAcknowledgedPrefixAndReleasesTheRest() {
+        List<OutboxEvent> events = events(1, 2, 3, 4);
+        when(repository.findAllByOrderByIdAsc(any(Limit.class))).thenReturn(events);
+        // The third send fails; the fourth was acknowledged but must wait so the patient's events stay ordered
+        sends(acked(), acked(), CompletableFuture.failedFuture(new IllegalStateException("broker down")), acked());
+
+        relay.relay();
+
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(repository).updateClaimedUntil(List.of(3L, 4L), null);
+        assertEquals(2.0, count("sent"));
+        assertEquals(2.0, count("failed"));
+    }
+
+    @Test
+    void releasesTheWholeBatchWhenTheFirstSendTimesOut() {
+        List<OutboxEvent> events = events(1, 2);
+        when(repository.findAllByOrderByIdAsc(any(Limit.class))).thenReturn(events);
+        sends(new CompletableFuture<>(), acked());
+
+        relay.relay();
+
+        verify(repository, never()).deleteAllByIdInBatch(any());
+        verify(repository).updateClaimedUntil(List.of(1L, 2L), null);
+        assertEquals(0.0, count("sent"));
+        assertEquals(2.0, count("failed"));
+    }
+
+    @Test
+    void sendsOutsideAnyTransaction() {
+        List<OutboxEvent> events = events(1);
+        when(repository.findAllByOrderByIdAsc(any(Limit.class))).thenReturn(events).thenReturn(List.of());
+        List<Boolean> activeDuringSend = new ArrayList<>();
+        when(kafkaProducer.send(any(), any(), any())).thenAnswer(invocation -> {
+            activeDuringSend.add(transactionManager.active);
+            return acked();
+        });
+
+        relay.relay();
+
+        assertEquals(List.of(false), activeDuringSend);
+        assertEquals(2, transactionManager.commits);
+    }
+
+    @Test
+    void leavesTheOutboxAloneWhileAnotherRelayHoldsTheHead() {
+        List<OutboxEvent> events = events(1, 2);
+        events.getFirst().setClaimedUntil(Instant.now().plusSeconds(30));
+        when(repository.findAllByOrderByIdAsc(any(Limit.class))).thenReturn(events);
+
+        relay.relay();
+
+        verify(kafkaProducer, never()).send(any(), any(), any());
+        verify(repository, never()).updateClaimedUntil(anyList(), any());
+        verify(repository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void reclaimsRowsWhoseLeaseHasExpired() {
+        List<OutboxEvent> events = events(1);
+        events.getFirst().setClaimedUntil(Instant.now().minusSeconds(1));
+        when(repository.findAllByOrderByIdAsc(any(Limit.class))).thenReturn(events).thenReturn(List.of());
+        sends(acked());
+
+        relay.relay();
+
+        verify(repository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    private List<OutboxEvent> events(long... ids) {
+        List<OutboxEvent> events = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            OutboxEvent event = new OutboxEvent();
+            event.setId(id);
+            event.setAggregateId("patient-" + id);
+            event.setEventType("PATIENT_CREATED");
+            event.setPayload(new byte[]{(byte) id});
+            event.setCreatedAt(Instant.now());
+            events.add(event);
+        }
+        return events;
+    }
+
+    @SafeVarargs
+    private void sends(CompletableFuture<SendResult<String, byte[]>> first,
+                       CompletableFuture<SendResult<String, byte[]>>... rest) {
+        when(kafkaProducer.send(any(), any(), any())).thenReturn(first, rest);
+    }
+
+    private static CompletableFuture<SendResult<String, byte[]>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("outbox.relay.events").tag("outcome", outcome).counter().count();
+    }
+
+    private static class TrackingTransactionManager implements PlatformTransactionManager {
+        private boolean active;
+        private int commits;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            assertFalse(active, "Transactions must not nest");
+            active = true;
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            assertNotNull(status);
+            assertTrue(active);
+            active = false;
+            commits++;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            active = false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.cbrit0.patientservice.kafka;
+
+import com.cbrit0.patientservice.model.Patient;
+import com.cbrit0.patientservice.service.PatientSearchService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import patient.event.PatientEvent;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class PatientSearchIndexListenerTests {
+
+    private final PatientSearchService patientSearchService = mock(PatientSearchService.class);
+    private final PatientSearchIndexListener listener = new PatientSearchIndexListener(patientSearchService);
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    void indexesUpdatesFromTheEventPayload() {
+        listener.onPatientEvent(event("PATIENT_UPDATED").toByteArray());
+
+        ArgumentCaptor<Patient> indexed = ArgumentCaptor.forClass(Patient.class);
+        verify(patientSearchService).index(indexed.capture());
+        verifyNoMoreInteractions(patientSearchService);
+        assertEquals(id, indexed.getValue().getId());
+        assertEquals("Jonathan Smith", indexed.getValue().getName());
+        assertEquals("jonathan.smith@example.com", indexed.getValue().getEmail());
+        assertEquals("12 Baker Street, London", indexed.getValue().getAddress());
+        assertEquals(LocalDate.of(1985, 6, 15), indexed.getValue().getBirthDate());
+        assertEquals(4L, indexed.getValue().getVersion());
+    }
+
+    @Test
+    void removesDeletedPatients() {
+        listener.onPatientEvent(event("PATIENT_DELETED").toByteArray());
+
+        verify(patientSearchService).remove(id);
+        verifyNoMoreInteractions(patientSearchService);
+    }
+
+    @Test
+    void readsTheRowBackForEventsWithoutTheIndexedFields() {
+        listener.onPatientEvent(event("PATIENT_UPDATED").toBuilder().clearAddress().clearBirthDate().build().toByteArray());
+
+        verify(patientSearchService).reindex(id);
+        verifyNoMoreInteractions(patientSearchService);
+    }
+
+    @Test
+    void skipsEventsWithAMalformedPatientId() {
+        listener.onPatientEvent(event("PATIENT_UPDATED").toBuilder().setPatientId("not-a-uuid").build().toByteArray());
+        listener.onPatientEvent(new byte[]{(byte) 0xff});
+
+        verifyNoInteractions(patientSearchService);
+
+        // The listener carries on with the next record
+        listener.onPatientEvent(event("PATIENT_CREATED").toByteArray());
+        verify(patientSearchService).index(any(Patient.class));
+    }
+
+    private PatientEvent event(String eventType) {
+        return PatientEvent.newBuilder()
+                .setPatientId(id.toString())
+                .setName("Jonathan Smith")
+                .setEmail("jonathan.smith@example.com")
+                .setAddress("12 Baker Street, London")
+                .setBirthDate("1985-06-15")
+                .setEventType(eventType)
+                .setVersion(4)
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.cbrit0.patientservice.mapper;
+
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.exception.BulkImportFormatException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PatientJsonArrayReaderTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsEveryObjectInOrder() {
+        List<PatientRequestDTO> patients = readAll("""
+                [{"name": "Ann", "email": "ann@example.com"},
+                 {"name": "Bob", "email": "bob@example.com"}]""");
+
+        assertEquals(List.of("ann@example.com", "bob@example.com"),
+                patients.stream().map(PatientRequestDTO::getEmail).toList());
+    }
+
+    @Test
+    void emptyArrayHasNoPatients() {
+        assertFalse(reader("[]").hasNext());
+    }
+
+    @Test
+    void rejectsAnElementThatIsNotAnObject() {
+        PatientJsonArrayReader reader = reader("""
+                [{"email": "ann@example.com"}, 42, {"email": "bob@example.com"}]""");
+
+        assertEquals("ann@example.com", reader.next().getEmail());
+        assertThrows(BulkImportFormatException.class, reader::hasNext);
+    }
+
+    @Test
+    void rejectsABodyThatIsNotAnArray() {
+        assertThrows(BulkImportFormatException.class, () -> reader("{\"email\": \"ann@example.com\"}"));
+    }
+
+    @Test
+    void rejectsATruncatedArray() {
+        assertThrows(BulkImportFormatException.class, () -> readAll("[{\"email\": \"ann@example.com\"}"));
+    }
+
+    private PatientJsonArrayReader reader(String json) {
+        return new PatientJsonArrayReader(objectMapper, new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<PatientRequestDTO> readAll(String json) {
+        List<PatientRequestDTO> patients = new ArrayList<>();
+        reader(json).forEachRemaining(patients::add);
+        return patients;
+    }
+}
@@ -0,0 +1,177 @@
+package com.cbrit0.patientservice.search;
+
+import com.cbrit0.patientservice.model.Patient;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Indexes a synthetic patient population into an on-disk index and measures single-threaded search latency
+// for the queries front-desk staff type: name prefixes, full names, misspelt names, email prefixes and street fragments.
+// Run with: mvn test -Dtest=PatientSearchBenchmarkTests -Dloadtest=true [-Dloadtest.patients=1000000] [-Dloadtest.search.p99-ms=50]
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class PatientSearchBenchmarkTests {
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchBenchmarkTests.class);
+
+    private static final int PATIENTS = Integer.getInteger("loadtest.patients", 1_000_000);
+    private static final int WARMUP_QUERIES = 2_000;
+    private static final int QUERIES = 10_000;
+    private static final long P99_TARGET_MS = Long.getLong("loadtest.search.p99-ms", 50);
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+            "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Christopher", "Nancy", "Daniel", "Lisa", "Matthew", "Betty", "Anthony", "Margaret", "Mark", "Sandra",
+            "Donald", "Ashley", "Steven", "Kimberly", "Paul", "Emily", "Andrew", "Donna", "Joshua", "Michelle",
+            "Kenneth", "Dorothy", "Kevin", "Carol", "Brian", "Amanda", "George", "Melissa", "Edward", "Deborah",
+            "José", "María", "Chloé", "Zoë", "Søren", "François", "Björn", "Inês", "Mateo", "Aisha"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+            "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+            "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter", "Roberts",
+            "O'Brien", "Müller", "Schmidt", "Kowalski", "Novak", "Rossi", "Dubois", "Silva", "Kim", "Okafor"
+    };
+    private static final String[] STREETS = {
+            "Main", "Oak", "Pine", "Maple", "Cedar", "Elm", "Washington", "Lake", "Hill", "Park",
+            "Baker", "Church", "High", "Station", "Victoria", "Green", "Manor", "Mill", "Kingsway", "Riverside"
+    };
+    private static final String[] STREET_TYPES = {"Street", "Road", "Avenue", "Lane", "Drive", "Close"};
+    private static final String[] CITIES = {
+            "Springfield", "Riverton", "Fairview", "Franklin", "Greenville", "Bristol", "Clinton", "Madison",
+            "Georgetown", "Salem", "Ashland", "Oxford", "Burlington", "Manchester", "Milton", "Newport"
+    };
+    private static final String[] DOMAINS = {"example.com", "example.org", "mail.test", "clinic.test"};
+
+    @TempDir
+    Path indexDir;
+
+    @Test
+    void searchLatencyAtScale() throws Exception {
+        Random random = new Random(42);
+        List<Patient> sample = new ArrayList<>();
+
+        PatientSearchIndex index = new PatientSearchIndex(FSDirectory.open(indexDir));
+        try {
+            long indexStart = System.nanoTime();
+            for (int i = 0; i < PATIENTS; i++) {
+                Patient patient = patient(i, random);
+                index.index(patient);
+                if (i % 100 == 0) {
+                    sample.add(patient);
+                }
+            }
+            index.refresh();
+            log.info("Indexed {} patients in {} ms", PATIENTS, (System.nanoTime() - indexStart) / 1_000_000);
+
+            Map<String, Function<Patient, String>> queryShapes = new LinkedHashMap<>();
+            queryShapes.put("first-name prefix", patient -> firstName(patient).substring(0, Math.min(3, firstName(patient).length())));
+            queryShapes.put("full name", Patient::getName);
+            queryShapes.put("misspelt last name", patient -> misspell(lastName(patient), random));
+            queryShapes.put("email prefix", patient -> patient.getEmail().substring(0, patient.getEmail().indexOf('@') + 4));
+            queryShapes.put("street", patient -> patient.getAddress().substring(0, patient.getAddress().indexOf(',')));
+            queryShapes.put("name, last prefix", patient -> firstName(patient) + " "
+                    + lastName(patient).substring(0, Math.min(3, lastName(patient).length())));
+            List<String> shapeNames = List.copyOf(queryShapes.keySet());
+
+            for (int i = 0; i < WARMUP_QUERIES; i++) {
+                String shape = shapeNames.get(random.nextInt(shapeNames.size()));
+                index.search(queryShapes.get(shape).apply(sample.get(random.nextInt(sample.size()))), 20);
+            }
+
+            long[] latencies = new long[QUERIES];
+            Map<String, List<Long>> latenciesByShape = new LinkedHashMap<>();
+            int empty = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                String shape = shapeNames.get(random.nextInt(shapeNames.size()));
+                String query = queryShapes.get(shape).apply(sample.get(random.nextInt(sample.size())));
+                long start = System.nanoTime();
+                boolean found = !index.search(query, 20).isEmpty();
+                latencies[i] = System.nanoTime() - start;
+                latenciesByShape.computeIfAbsent(shape, key -> new ArrayList<>()).add(latencies[i]);
+                if (!found) {
+                    empty++;
+                }
+            }
+
+            latenciesByShape.forEach((shape, shapeLatencies) -> {
+                long[] sorted = shapeLatencies.stream().mapToLong(Long::longValue).sorted().toArray();
+                log.info("{}: p50 {} ms, p99 {} ms", shape, twoDecimals(percentileMs(sorted, 0.50)),
+                        twoDecimals(percentileMs(sorted, 0.99)));
+            });
+            Arrays.sort(latencies);
+            double p50 = percentileMs(latencies, 0.50);
+            double p95 = percentileMs(latencies, 0.95);
+            double p99 = percentileMs(latencies, 0.99);
+            log.info("{} queries over {} patients: p50 {} ms, p95 {} ms, p99 {} ms, max {} ms, {} without hits",
+                    QUERIES, PATIENTS, twoDecimals(p50), twoDecimals(p95), twoDecimals(p99),
+                    twoDecimals(latencies[QUERIES - 1] / 1e6), empty);
+
+            assertFalse(empty > QUERIES / 100, "queries built from indexed patients should find them");
+            assertTrue(p99 <= P99_TARGET_MS, "p99 " + p99 + " ms exceeds the " + P99_TARGET_MS + " ms target");
+        } finally {
+            index.close();
+        }
+    }
+
+    private static Patient patient(int i, Random random) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        Patient patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setName(first + " " + last);
+        patient.setEmail((first + "." + last).toLowerCase().replaceAll("[^a-z.]", "") + i + "@" + DOMAINS[random.nextInt(DOMAINS.length)]);
+        patient.setAddress((1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)] + " "
+                + STREET_TYPES[random.nextInt(STREET_TYPES.length)] + ", " + CITIES[random.nextInt(CITIES.length)]);
+        patient.setBirthDate(LocalDate.of(1930, 1, 1).plusDays(random.nextInt(90 * 365)));
+        return patient;
+    }
+
+    private static String firstName(Patient patient) {
+        return patient.getName().substring(0, patient.getName().indexOf(' '));
+    }
+
+    private static String lastName(Patient patient) {
+        return patient.getName().substring(patient.getName().indexOf(' ') + 1);
+    }
+
+    // Swaps two adjacent letters after the first, the most common typing slip
+    private static String misspell(String word, Random random) {
+        if (word.length() < 4) {
+            return word;
+        }
+        int at = 1 + random.nextInt(word.length() - 2);
+        char[] letters = word.toCharArray();
+        char swapped = letters[at];
+        letters[at] = letters[at + 1];
+        letters[at + 1] = swapped;
+        return new String(letters);
+    }
+
+    private static double percentileMs(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private static double twoDecimals(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
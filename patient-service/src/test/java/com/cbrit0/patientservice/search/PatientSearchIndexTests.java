@@ -0,0 +1,124 @@
+package com.cbrit0.patientservice.search;
+
+import com.cbrit0.patientservice.dto.PatientSearchHitDTO;
+import com.cbrit0.patientservice.model.Patient;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientSearchIndexTests {
+
+    private PatientSearchIndex index;
+    private Patient jonathan;
+    private Patient joanna;
+    private Patient jose;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        index = new PatientSearchIndex(new ByteBuffersDirectory());
+        jonathan = patient("Jonathan Smith", "jonathan.smith@example.com", "12 Baker Street, London");
+        joanna = patient("Joanna Baker", "joanna.b@example.org", "4 Elm Road, Leeds");
+        jose = patient("José Álvarez", "jalvarez@example.net", "77 Smithfield Lane, York");
+        index.index(jonathan);
+        index.index(joanna);
+        index.index(jose);
+        index.refresh();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void prefixesMatchAcrossFieldsAndNameRanksFirst() {
+        List<PatientSearchHitDTO> hits = index.search("smith", 10);
+
+        assertEquals(2, hits.size());
+        // An exact name term beats a prefix of an address term
+        assertEquals(jonathan.getId().toString(), hits.get(0).getId());
+        assertEquals(jose.getId().toString(), hits.get(1).getId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+
+        assertEquals(List.of(jonathan.getId().toString()), ids(index.search("jon smi", 10)));
+    }
+
+    @Test
+    void typosAndAccentsStillMatch() {
+        assertEquals(List.of(jonathan.getId().toString()), ids(index.search("Jonahtan", 10)));
+        assertEquals(List.of(jose.getId().toString()), ids(index.search("jose alvarez", 10)));
+    }
+
+    @Test
+    void emailPartsAreSearchable() {
+        assertEquals(List.of(jose.getId().toString()), ids(index.search("jalvarez", 10)));
+        assertEquals(List.of(joanna.getId().toString()), ids(index.search("example.org", 10)));
+    }
+
+    @Test
+    void emailPrefixPutsThatPatientFirst() {
+        List<PatientSearchHitDTO> hits = index.search("joanna.b@exa", 10);
+
+        assertEquals(joanna.getId().toString(), hits.get(0).getId());
+        assertEquals("4 Elm Road, Leeds", hits.get(0).getAddress());
+    }
+
+    @Test
+    void updatesReplaceAndDeletesRemoveDocuments() {
+        jonathan.setName("Jonathan Taylor");
+        index.index(jonathan);
+        index.remove(joanna.getId());
+        index.refresh();
+
+        assertEquals(List.of(), ids(index.search("joanna", 10)));
+        assertEquals(List.of(jonathan.getId().toString()), ids(index.search("taylor", 10)));
+        assertEquals(List.of(jonathan.getId().toString()), ids(index.search("baker", 10)));
+    }
+
+    @Test
+    void indexedVersionIsVisibleBeforeAndAfterRefresh() {
+        Patient patient = patient("Maria Costa", "maria@example.com", "3 Quay Street, Hull");
+        patient.setVersion(3L);
+
+        assertEquals(-1, index.indexedVersion(patient.getId()));
+        index.index(patient);
+        assertEquals(3, index.indexedVersion(patient.getId()));
+        index.refresh();
+        assertEquals(3, index.indexedVersion(patient.getId()));
+        // Unversioned patients count as the first version
+        assertEquals(0, index.indexedVersion(jonathan.getId()));
+    }
+
+    @Test
+    void deletedPatientsKeepATombstoneThatOutranksEveryVersion() {
+        index.remove(joanna.getId());
+        assertEquals(Long.MAX_VALUE, index.indexedVersion(joanna.getId()));
+        index.refresh();
+
+        assertEquals(Long.MAX_VALUE, index.indexedVersion(joanna.getId()));
+        assertEquals(List.of(), ids(index.search("joanna", 10)));
+    }
+
+    private static List<String> ids(List<PatientSearchHitDTO> hits) {
+        return hits.stream().map(PatientSearchHitDTO::getId).toList();
+    }
+
+    private static Patient patient(String name, String email, String address) {
+        Patient patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setName(name);
+        patient.setEmail(email);
+        patient.setAddress(address);
+        patient.setBirthDate(LocalDate.of(1985, 6, 15));
+        return patient;
+    }
+}
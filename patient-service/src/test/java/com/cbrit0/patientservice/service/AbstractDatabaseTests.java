@@ -0,0 +1,35 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.grpc.BillingServiceGrpcClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+// One Spring context on the embedded database for every test that extends this, with pollers and listeners
+// out of the way and billing stubbed; keeping the configuration in one place keeps the context shared
+@SpringBootTest(properties = {
+        "patient.cache.invalidation.enabled=false",
+        "patient.search.sync.enabled=false",
+        "outbox.relay.interval-ms=3600000",
+        "billing.retry.interval-ms=3600000",
+        // The billing stub never completes, so in-flight permits are never released
+        "billing.service.max-in-flight=1000000",
+        "grpc.server.port=-1"
+})
+@Import(StatementCounter.Config.class)
+abstract class AbstractDatabaseTests {
+
+    @MockitoBean
+    protected BillingServiceGrpcClient billingServiceGrpcClient;
+
+    @BeforeEach
+    void stubBilling() {
+        when(billingServiceGrpcClient.createBillingAccount(any(), any(), any())).thenReturn(new CompletableFuture<>());
+    }
+}
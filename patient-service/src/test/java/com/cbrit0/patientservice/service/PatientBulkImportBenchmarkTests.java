@@ -0,0 +1,126 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.BulkImportResponseDTO;
+import com.cbrit0.patientservice.dto.BulkImportRowResultDTO;
+import com.cbrit0.patientservice.dto.BulkImportRowResultDTO.Status;
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+
+// Compares one createPatient call per row with the chunked bulk import, counting statements sent to the database
+class PatientBulkImportBenchmarkTests extends AbstractDatabaseTests {
+    private static final Logger log = LoggerFactory.getLogger(PatientBulkImportBenchmarkTests.class);
+
+    // Two full chunks of patient.bulk-import.chunk-size and a partial one
+    private static final int ROWS = 1_200;
+
+    @Autowired
+    private PatientBulkImportService patientBulkImportService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void importWritesEachChunkAsBatches() {
+        // Warm up both paths so neither pays for first-use class loading and statement caches
+        rows(100).forEach(patientService::createPatient);
+        patientBulkImportService.importPatients(rows(100).iterator());
+
+        List<PatientRequestDTO> single = rows(ROWS);
+        StatementCounter.start();
+        long start = System.nanoTime();
+        single.forEach(patientService::createPatient);
+        double singleMillis = (System.nanoTime() - start) / 1_000_000.0;
+        double singleStatements = (double) StatementCounter.stop() / ROWS;
+
+        List<PatientRequestDTO> bulk = rows(ROWS);
+        StatementCounter.start();
+        start = System.nanoTime();
+        BulkImportResponseDTO response = patientBulkImportService.importPatients(bulk.iterator());
+        double bulkMillis = (System.nanoTime() - start) / 1_000_000.0;
+        double bulkStatements = (double) StatementCounter.stop() / ROWS;
+
+        log.info("{} rows: one create per row {} ms, {} statements/row; bulk import {} ms, {} statements/row ({}x faster)",
+                ROWS, Math.round(singleMillis), singleStatements, Math.round(bulkMillis), bulkStatements,
+                Math.round(singleMillis / bulkMillis * 10) / 10.0);
+        assertEquals(ROWS, response.getCreated());
+        // Per row: the patient insert and the outbox insert, plus an id block fetch every 50 outbox events
+        assertEquals(2.0, singleStatements, 0.05);
+        // Per chunk: the email lookup and one batch each for patients and outbox events, plus the same block fetches
+        assertTrue(bulkStatements < 0.05, "bulk import prepared " + bulkStatements + " statements per row");
+        assertTrue(bulkMillis < singleMillis, "bulk import was not faster than one create per row");
+    }
+
+    @Test
+    void rejectsInvalidAndDuplicateRowsAndKeepsInputOrder() {
+        String existingEmail = patientService.createPatient(row(uniqueEmail())).getEmail();
+        PatientRequestDTO first = row(uniqueEmail());
+        PatientRequestDTO invalid = row(uniqueEmail());
+        invalid.setName(null);
+        PatientRequestDTO badDate = row(uniqueEmail());
+        badDate.setBirthDate("not-a-date");
+        PatientRequestDTO last = row(uniqueEmail());
+        clearInvocations(billingServiceGrpcClient);
+
+        BulkImportResponseDTO response = patientBulkImportService.importPatients(List.of(
+                first, row(existingEmail), invalid, row(first.getEmail()), badDate, last).iterator());
+
+        assertEquals(6, response.getTotal());
+        assertEquals(2, response.getCreated());
+        assertEquals(4, response.getRejected());
+        assertEquals(List.of(Status.CREATED, Status.DUPLICATE, Status.INVALID, Status.DUPLICATE, Status.INVALID, Status.CREATED),
+                response.getResults().stream().map(BulkImportRowResultDTO::getStatus).toList());
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), response.getResults().stream().map(BulkImportRowResultDTO::getRow).toList());
+
+        String firstId = response.getResults().getFirst().getId();
+        String lastId = response.getResults().getLast().getId();
+        assertEquals(first.getEmail(), patientRepository.findById(UUID.fromString(firstId)).orElseThrow().getEmail());
+        assertEquals(last.getEmail(), patientRepository.findById(UUID.fromString(lastId)).orElseThrow().getEmail());
+
+        // Billing accounts are requested in input order
+        ArgumentCaptor<String> billed = ArgumentCaptor.forClass(String.class);
+        verify(billingServiceGrpcClient, atLeastOnce()).createBillingAccount(billed.capture(), any(), any());
+        assertEquals(List.of(firstId, lastId), billed.getAllValues());
+    }
+
+    private static List<PatientRequestDTO> rows(int count) {
+        List<PatientRequestDTO> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(row(uniqueEmail()));
+        }
+        return rows;
+    }
+
+    private static PatientRequestDTO row(String email) {
+        PatientRequestDTO row = new PatientRequestDTO();
+        row.setName("Jane Doe");
+        row.setEmail(email);
+        row.setAddress("1 Main Street");
+        row.setBirthDate("1990-01-01");
+        row.setRegistrationDate(LocalDate.now().toString());
+        return row;
+    }
+
+    private static String uniqueEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+}
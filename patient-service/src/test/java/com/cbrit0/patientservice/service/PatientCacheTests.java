@@ -0,0 +1,65 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.PatientResponseDTO;
+import com.cbrit0.patientservice.model.Patient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PatientCacheTests {
+
+    private final PatientCache patientCache = new PatientCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void updateEventsEvictOnlyOlderVersions() {
+        Patient patient = patient(3L);
+        patientCache.put(patient);
+
+        patientCache.evictIfOlderThan(patient.getId(), 3);
+        patientCache.evictIfOlderThan(patient.getId(), 2);
+        assertEquals("Jane", load(patient).getName());
+        assertEquals(0, loads.get());
+
+        patientCache.evictIfOlderThan(patient.getId(), 4);
+        load(patient);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidateRemovesEntryRegardlessOfVersion() {
+        Patient patient = patient(7L);
+        patientCache.put(patient);
+
+        patientCache.invalidate(patient.getId());
+        load(patient);
+
+        assertEquals(1, loads.get());
+    }
+
+    private PatientResponseDTO load(Patient patient) {
+        return patientCache.get(patient.getId(), id -> {
+            loads.incrementAndGet();
+            return Optional.of(patient);
+        }).orElseThrow();
+    }
+
+    private static Patient patient(long version) {
+        Patient patient = new Patient();
+        patient.setId(UUID.randomUUID());
+        patient.setName("Jane");
+        patient.setEmail("jane@example.com");
+        patient.setAddress("1 Main St");
+        patient.setBirthDate(LocalDate.of(1990, 1, 1));
+        patient.setRegistrationDate(LocalDate.of(2024, 1, 1));
+        patient.setVersion(version);
+        return patient;
+    }
+}
@@ -0,0 +1,67 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientExportTests extends AbstractDatabaseTests {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientBulkImportService patientBulkImportService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void exportFlushesEveryFiveHundredRowsRatherThanEveryRow() throws IOException {
+        patientBulkImportService.importPatients(rows(1_200).iterator());
+        long patients = patientRepository.count();
+
+        FlushCountingOutputStream out = new FlushCountingOutputStream();
+        patientService.exportPatients(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(patients, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].endsWith("}"), lines[0]);
+        // One flush per interval plus the generator's flush on close
+        assertTrue(out.flushes <= patients / 500 + 2, out.flushes + " flushes for " + patients + " patients");
+    }
+
+    private static List<PatientRequestDTO> rows(int count) {
+        List<PatientRequestDTO> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PatientRequestDTO row = new PatientRequestDTO();
+            row.setName("Export Patient " + i);
+            row.setEmail(UUID.randomUUID() + "@example.com");
+            row.setAddress(i + " Export Street");
+            row.setBirthDate("1980-01-01");
+            row.setRegistrationDate(LocalDate.now().toString());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static class FlushCountingOutputStream extends ByteArrayOutputStream {
+        private int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
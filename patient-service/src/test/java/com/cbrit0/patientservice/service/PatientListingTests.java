@@ -0,0 +1,189 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.PatientFilterDTO;
+import com.cbrit0.patientservice.dto.PatientPageResponseDTO;
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.dto.PatientResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Keyset pages over GET /patients; every test names its patients with a fresh prefix and filters on it,
+// so rows written by other tests in the shared database stay out of the pages
+class PatientListingTests extends AbstractDatabaseTests {
+
+    private static final LocalDate REGISTERED = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Test
+    void cursorWalksEveryPatientOnceWhenRegistrationDatesTie() {
+        String prefix = prefix();
+        List<PatientResponseDTO> created = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            created.add(patientService.createPatient(request(prefix + " " + i, LocalDate.of(1990, 1, 1), REGISTERED)));
+        }
+
+        List<List<PatientResponseDTO>> pages = walk(filter(prefix, 3));
+
+        assertEquals(List.of(3, 3, 1), pages.stream().map(List::size).toList());
+        // Every row shares the registration date, so the order comes from the id tie-break alone;
+        // the database orders UUIDs byte by byte, which is the order of their hex strings
+        List<String> expected = created.stream().map(PatientResponseDTO::getId).sorted().toList();
+        assertEquals(expected, pages.stream().flatMap(List::stream).map(PatientResponseDTO::getId).toList());
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        String prefix = prefix();
+        for (int i = 0; i < 4; i++) {
+            patientService.createPatient(request(prefix + " " + i, LocalDate.of(1990, 1, 1), REGISTERED.plusDays(i)));
+        }
+
+        PatientPageResponseDTO first = patientService.getPatients(filter(prefix, 2));
+        assertNotNull(first.getNextCursor());
+
+        PatientFilterDTO next = filter(prefix, 2);
+        next.setCursor(first.getNextCursor());
+        PatientPageResponseDTO last = patientService.getPatients(next);
+        // Exactly a full page left: the extra row fetched to look ahead is absent
+        assertEquals(2, last.getPatients().size());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void filtersStillApplyAfterTheFirstPage() {
+        String prefix = prefix();
+        List<String> matching = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            LocalDate birthDate = LocalDate.of(1980 + i * 5, 6, 1);
+            PatientResponseDTO patient = patientService.createPatient(request(prefix + " " + i, birthDate, REGISTERED.plusDays(i)));
+            if (birthDate.getYear() >= 1985 && birthDate.getYear() <= 1995) {
+                matching.add(patient.getId());
+            }
+        }
+        patientService.createPatient(request("Other " + prefix, LocalDate.of(1990, 6, 1), REGISTERED));
+
+        PatientFilterDTO filter = filter(prefix, 1);
+        filter.setBirthDateFrom(LocalDate.of(1985, 1, 1));
+        filter.setBirthDateTo(LocalDate.of(1995, 12, 31));
+        List<List<PatientResponseDTO>> pages = walk(filter);
+
+        assertEquals(3, pages.size());
+        assertEquals(matching, pages.stream().flatMap(List::stream).map(PatientResponseDTO::getId).toList());
+
+        // An exact email alongside the other filters, resumed from cursors before and after that patient
+        PatientResponseDTO second = pages.get(1).getFirst();
+        filter.setEmail(second.getEmail());
+        filter.setSize(5);
+        filter.setCursor(cursorAfter(prefix, 1));
+        assertEquals(List.of(second.getId()), ids(patientService.getPatients(filter)));
+
+        filter.setCursor(cursorAfter(prefix, 5));
+        assertEquals(List.of(), ids(patientService.getPatients(filter)));
+    }
+
+    @Test
+    void likeWildcardsInTheNameAreMatchedLiterally() {
+        String prefix = prefix();
+        PatientResponseDTO percent = patientService.createPatient(request(prefix + "%a", LocalDate.of(1990, 1, 1), REGISTERED));
+        PatientResponseDTO underscore = patientService.createPatient(request(prefix + "_a", LocalDate.of(1990, 1, 1), REGISTERED));
+        patientService.createPatient(request(prefix + "xa", LocalDate.of(1990, 1, 1), REGISTERED));
+        patientService.createPatient(request(prefix + "xxa", LocalDate.of(1990, 1, 1), REGISTERED));
+
+        assertEquals(List.of(percent.getId()), ids(patientService.getPatients(filter(prefix + "%", 10))));
+        assertEquals(List.of(underscore.getId()), ids(patientService.getPatients(filter(prefix + "_", 10))));
+        assertEquals(4, patientService.getPatients(filter(prefix, 10)).getPatients().size());
+    }
+
+    @Test
+    void malformedCursorAndOutOfRangeSizeAreBadRequests() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        mockMvc.perform(get("/patients").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+        mockMvc.perform(get("/patients").param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.size").value("Size must be at least 1"));
+        mockMvc.perform(get("/patients").param("size", "501"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.size").value("Size must not exceed 500"));
+        mockMvc.perform(get("/patients").param("size", "500"))
+                .andExpect(status().isOk());
+    }
+
+    private List<List<PatientResponseDTO>> walk(PatientFilterDTO filter) {
+        List<List<PatientResponseDTO>> pages = new ArrayList<>();
+        HashSet<String> seen = new HashSet<>();
+        String cursor = null;
+        do {
+            PatientPageResponseDTO page = patientService.getPatients(from(filter, cursor));
+            pages.add(page.getPatients());
+            page.getPatients().forEach(patient -> assertTrue(seen.add(patient.getId()), "repeated " + patient.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return pages;
+    }
+
+    // Cursor positioned after the first n patients with the prefix, whatever their other fields
+    private String cursorAfter(String prefix, int n) {
+        return patientService.getPatients(filter(prefix, n)).getNextCursor();
+    }
+
+    private static PatientFilterDTO from(PatientFilterDTO filter, String cursor) {
+        PatientFilterDTO copy = new PatientFilterDTO();
+        copy.setName(filter.getName());
+        copy.setEmail(filter.getEmail());
+        copy.setBirthDateFrom(filter.getBirthDateFrom());
+        copy.setBirthDateTo(filter.getBirthDateTo());
+        copy.setSize(filter.getSize());
+        copy.setCursor(cursor);
+        return copy;
+    }
+
+    private static PatientFilterDTO filter(String name, int size) {
+        PatientFilterDTO filter = new PatientFilterDTO();
+        filter.setName(name);
+        filter.setSize(size);
+        return filter;
+    }
+
+    private static List<String> ids(PatientPageResponseDTO page) {
+        return page.getPatients().stream().map(PatientResponseDTO::getId).toList();
+    }
+
+    private static String prefix() {
+        return "Listing" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static PatientRequestDTO request(String name, LocalDate birthDate, LocalDate registrationDate) {
+        PatientRequestDTO request = new PatientRequestDTO();
+        request.setName(name);
+        request.setEmail(UUID.randomUUID() + "@example.com");
+        request.setAddress("1 Main Street");
+        request.setBirthDate(birthDate.toString());
+        request.setRegistrationDate(registrationDate.toString());
+        return request;
+    }
+}
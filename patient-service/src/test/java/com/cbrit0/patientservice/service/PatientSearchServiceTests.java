@@ -0,0 +1,81 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.PatientSearchHitDTO;
+import com.cbrit0.patientservice.dto.PatientSearchRequestDTO;
+import com.cbrit0.patientservice.model.Patient;
+import com.cbrit0.patientservice.repository.PatientRepository;
+import com.cbrit0.patientservice.search.PatientSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class PatientSearchServiceTests {
+
+    private final PatientSearchIndex index = new PatientSearchIndex("");
+    private final PatientSearchService service = new PatientSearchService(index, mock(PatientRepository.class),
+            null, null, Runnable::run, new SimpleMeterRegistry());
+    private final UUID id = UUID.randomUUID();
+
+    PatientSearchServiceTests() throws IOException {
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void anOlderEventDoesNotOverwriteANewerVersion() {
+        service.index(patient("Jonathan Smith", 2));
+        // Relayed late from another replica
+        service.index(patient("Jon Smith", 1));
+        // This replica's own write coming back as an event
+        service.index(patient("Jonathan Smith-Jones", 2));
+
+        assertEquals(List.of("Jonathan Smith"), names("smith"));
+    }
+
+    @Test
+    void aNewerVersionReplacesTheDocument() {
+        service.index(patient("Jonathan Smith", 1));
+        service.index(patient("Jonathan Taylor", 2));
+
+        assertEquals(List.of("Jonathan Taylor"), names("jonathan"));
+    }
+
+    @Test
+    void eventsRelayedAfterTheDeleteDoNotBringThePatientBack() {
+        service.index(patient("Jonathan Smith", 1));
+        service.remove(id);
+        service.index(patient("Jonathan Smith", 2));
+
+        assertEquals(List.of(), names("jonathan"));
+    }
+
+    private List<String> names(String query) {
+        index.refresh();
+        PatientSearchRequestDTO request = new PatientSearchRequestDTO();
+        request.setQ(query);
+        request.setSize(10);
+        return service.search(request).getPatients().stream().map(PatientSearchHitDTO::getName).toList();
+    }
+
+    private Patient patient(String name, long version) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setName(name);
+        patient.setEmail("jonathan.smith@example.com");
+        patient.setAddress("12 Baker Street, London");
+        patient.setBirthDate(LocalDate.of(1985, 6, 15));
+        patient.setVersion(version);
+        return patient;
+    }
+}
@@ -0,0 +1,196 @@
+package com.cbrit0.patientservice.service;
+
+import com.cbrit0.patientservice.dto.PatientRequestDTO;
+import com.cbrit0.patientservice.dto.PatientResponseDTO;
+import com.cbrit0.patientservice.exception.EmailAlreadyExistsException;
+import com.cbrit0.patientservice.exception.PatientNotFoundException;
+import com.cbrit0.patientservice.mapper.PatientMapper;
+import com.cbrit0.patientservice.model.Patient;
+import com.cbrit0.patientservice.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Compares the old check-then-write sequences with the single-statement writes, counting statements sent to the database
+class PatientWriteBenchmarkTests extends AbstractDatabaseTests {
+    private static final Logger log = LoggerFactory.getLogger(PatientWriteBenchmarkTests.class);
+
+    private static final int ITERATIONS = 200;
+    // The outbox id sequence hands out blocks of 50, adding one fetch per 50 writes to either variant
+    private static final double SEQUENCE_FETCHES = 0.05;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createSendsInsertsOnly() {
+        Measurement baseline = measure(() -> {
+            PatientRequestDTO request = request(uniqueEmail());
+            if (emailTaken(request.getEmail())) {
+                throw new EmailAlreadyExistsException(request.getEmail());
+            }
+            Patient patient = PatientMapper.toModel(request);
+            transactionTemplate.executeWithoutResult(status -> {
+                Patient saved = patientRepository.saveAndFlush(patient);
+                outboxService.enqueue(saved, "PATIENT_CREATED");
+            });
+        });
+        Measurement current = measure(() -> patientService.createPatient(request(uniqueEmail())));
+
+        report("create", baseline, current);
+        assertEquals(3.0, baseline.statementsPerWrite(), SEQUENCE_FETCHES);
+        assertEquals(2.0, current.statementsPerWrite(), SEQUENCE_FETCHES);
+    }
+
+    @Test
+    void updateSendsOneUpdateAndTheOutboxInsert() {
+        UUID id = UUID.fromString(patientService.createPatient(request(uniqueEmail())).getId());
+
+        Measurement baseline = measure(() -> {
+            PatientRequestDTO request = request(uniqueEmail());
+            transactionTemplate.executeWithoutResult(status -> {
+                Patient patient = patientRepository.findById(id).orElseThrow();
+                if (emailTakenByAnother(request.getEmail(), id)) {
+                    throw new EmailAlreadyExistsException(request.getEmail());
+                }
+                patient.setEmail(request.getEmail());
+                Patient saved = patientRepository.saveAndFlush(patient);
+                outboxService.enqueue(saved, "PATIENT_UPDATED");
+            });
+        });
+        Measurement current = measure(() -> patientService.updatePatient(id, request(uniqueEmail())));
+        Measurement conditional = measure(() -> {
+            PatientRequestDTO request = request(uniqueEmail());
+            request.setVersion(patientRepository.findById(id).orElseThrow().getVersion());
+            patientService.updatePatient(id, request);
+        });
+
+        report("update", baseline, current);
+        assertEquals(4.0, baseline.statementsPerWrite(), SEQUENCE_FETCHES);
+        assertEquals(2.0, current.statementsPerWrite(), SEQUENCE_FETCHES);
+        // The read that supplies the expected version, then the same two writes
+        assertEquals(3.0, conditional.statementsPerWrite(), SEQUENCE_FETCHES);
+    }
+
+    @Test
+    void updateWithAStaleVersionIsRejected() {
+        PatientResponseDTO created = patientService.createPatient(request(uniqueEmail()));
+        UUID id = UUID.fromString(created.getId());
+        assertEquals(0L, created.getVersion());
+
+        PatientRequestDTO first = request(uniqueEmail());
+        first.setVersion(created.getVersion());
+        assertEquals(1L, patientService.updatePatient(id, first).getVersion());
+
+        // A second writer that also read version 0 must not overwrite the first update
+        PatientRequestDTO second = request(uniqueEmail());
+        second.setVersion(created.getVersion());
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> patientService.updatePatient(id, second));
+        assertEquals(first.getEmail(), patientRepository.findById(id).orElseThrow().getEmail());
+
+        PatientRequestDTO missing = request(uniqueEmail());
+        missing.setVersion(0L);
+        assertThrows(PatientNotFoundException.class, () -> patientService.updatePatient(UUID.randomUUID(), missing));
+    }
+
+    @Test
+    void returnsTheWrittenRowAndTranslatesConflicts() {
+        PatientResponseDTO first = patientService.createPatient(request(uniqueEmail()));
+        PatientResponseDTO second = patientService.createPatient(request(uniqueEmail()));
+        UUID secondId = UUID.fromString(second.getId());
+
+        PatientRequestDTO rename = request(uniqueEmail());
+        rename.setName("Renamed");
+        PatientResponseDTO updated = patientService.updatePatient(secondId, rename);
+        assertEquals("Renamed", updated.getName());
+        assertEquals(rename.getEmail(), updated.getEmail());
+        assertEquals(1L, patientRepository.findById(secondId).orElseThrow().getVersion());
+
+        assertThrows(EmailAlreadyExistsException.class, () -> patientService.createPatient(request(first.getEmail())));
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> patientService.updatePatient(secondId, request(first.getEmail())));
+        assertThrows(PatientNotFoundException.class,
+                () -> patientService.updatePatient(UUID.randomUUID(), request(uniqueEmail())));
+
+        patientService.deletePatient(secondId);
+        assertTrue(patientRepository.findById(secondId).isEmpty());
+        assertThrows(PatientNotFoundException.class, () -> patientService.deletePatient(secondId));
+    }
+
+    // The existence checks the service used to run before each write
+    private boolean emailTaken(String email) {
+        return !jdbcTemplate.queryForList("select id from patient where email = ? fetch first 1 rows only",
+                UUID.class, email).isEmpty();
+    }
+
+    private boolean emailTakenByAnother(String email, UUID id) {
+        return !jdbcTemplate.queryForList("select id from patient where email = ? and id <> ? fetch first 1 rows only",
+                UUID.class, email, id).isEmpty();
+    }
+
+    private static Measurement measure(Runnable write) {
+        // Warm up so both variants run against prepared statement and plan caches
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            write.run();
+        }
+
+        StatementCounter.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            write.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Measurement((double) StatementCounter.stop() / ITERATIONS, elapsed / 1_000.0 / ITERATIONS);
+    }
+
+    private static void report(String operation, Measurement baseline, Measurement current) {
+        log.info("{}: check-then-write {} statements, {} us/write; single statement {} statements, {} us/write",
+                operation, oneDecimal(baseline.statementsPerWrite()), oneDecimal(baseline.microsPerWrite()),
+                oneDecimal(current.statementsPerWrite()), oneDecimal(current.microsPerWrite()));
+    }
+
+    // Rounding instead of String.format, so nothing is formatted unless the line is actually logged
+    private static double oneDecimal(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static PatientRequestDTO request(String email) {
+        PatientRequestDTO request = new PatientRequestDTO();
+        request.setName("Jane Doe");
+        request.setEmail(email);
+        request.setAddress("1 Main Street");
+        request.setBirthDate("1990-01-01");
+        request.setRegistrationDate(LocalDate.now().toString());
+        return request;
+    }
+
+    private static String uniqueEmail() {
+        return UUID.randomUUID() + "@example.com";
+    }
+
+    private record Measurement(double statementsPerWrite, double microsPerWrite) {
+    }
+}